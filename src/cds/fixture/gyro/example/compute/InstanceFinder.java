@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package gyro.example.compute;
+
+import gyro.core.Type;
+import gyro.core.finder.Finder;
+
+/**
+ * Query instances.
+ *
+ * .. code-block:: gyro
+ *
+ *     instance: $(external-query example::instance { instance-type: "small" })
+ */
+@Type("instance")
+public class InstanceFinder extends Finder<InstanceResource> {
+
+    private String instanceType;
+
+    /**
+     * The size of the instance.
+     */
+    public String getInstanceType() {
+        return instanceType;
+    }
+
+    public void setInstanceType(String instanceType) {
+        this.instanceType = instanceType;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package gyro.example.compute;
+
+import java.util.List;
+
+import gyro.core.Type;
+import gyro.core.resource.Output;
+import gyro.core.validation.Range;
+import gyro.core.validation.Required;
+import gyro.core.validation.ValidStrings;
+import gyro.example.ExampleResource;
+import gyro.example.network.NetworkResource;
+
+/**
+ * Creates an instance.
+ *
+ * Example
+ * -------
+ *
+ * .. code-block:: gyro
+ *
+ *     example::instance instance-example
+ *         instance-type: "small"
+ *
+ *         disk
+ *             size: 10
+ *         end
+ *     end
+ */
+@Type("instance")
+public class InstanceResource extends ExampleResource {
+
+    private String instanceType;
+    private Integer cores;
+    private List<Disk> disk;
+    private NetworkResource network;
+    private String instanceId;
+
+    /**
+     * The size of the instance.
+     */
+    @Required
+    @ValidStrings({"small", "large"})
+    public String getInstanceType() {
+        return instanceType;
+    }
+
+    public void setInstanceType(String instanceType) {
+        this.instanceType = instanceType;
+    }
+
+    /**
+     * The number of cores.
+     */
+    @Range(min = 1, max = 64)
+    public Integer getCores() {
+        return cores;
+    }
+
+    public void setCores(Integer cores) {
+        this.cores = cores;
+    }
+
+    /**
+     * The disks attached to the instance.
+     *
+     * @subresource gyro.example.compute.Disk
+     */
+    public List<Disk> getDisk() {
+        return disk;
+    }
+
+    public void setDisk(List<Disk> disk) {
+        this.disk = disk;
+    }
+
+    /**
+     * The network of the instance.
+     *
+     * @resource gyro.example.network.NetworkResource
+     */
+    public NetworkResource getNetwork() {
+        return network;
+    }
+
+    public void setNetwork(NetworkResource network) {
+        this.network = network;
+    }
+
+    /**
+     * The ID of the instance.
+     */
+    @Output
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package gyro.example.network;
+
+import gyro.core.Type;
+import gyro.core.validation.Required;
+import gyro.example.ExampleResource;
+
+/**
+ * Creates a network.
+ *
+ * .. code-block:: gyro
+ *
+ *     example::network network-example
+ *         cidr-block: "10.0.0.0/16"
+ *     end
+ */
+@Type("network")
+public class NetworkResource extends ExampleResource {
+
+    private String cidrBlock;
+
+    /**
+     * The IPv4 range of the network.
+     */
+    @Required
+    public String getCidrBlock() {
+        return cidrBlock;
+    }
+
+    public void setCidrBlock(String cidrBlock) {
+        this.cidrBlock = cidrBlock;
+    }
+}
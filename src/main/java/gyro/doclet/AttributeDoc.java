@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Documentation extracted from a single attribute getter. Subresource attributes carry the attributes of the
+ * subresource class as children.
+ */
+public class AttributeDoc {
+
+    private String name;
+    private String collectionType;
+    private ResourceType resourceType;
+    private String linkGroup;
+    private String linkType;
+    private String linkClass;
+    private String subresourceGroup;
+    private String subresourceType;
+    private String comment;
+    private boolean output;
+    private List<AttributeDoc> attributes = new ArrayList<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Lower case simple name of the collection type (i.e. {@code list}) or {@code null} if the attribute isn't a
+     * collection.
+     */
+    public String getCollectionType() {
+        return collectionType;
+    }
+
+    public void setCollectionType(String collectionType) {
+        this.collectionType = collectionType;
+    }
+
+    public ResourceType getResourceType() {
+        return resourceType;
+    }
+
+    public void setResourceType(ResourceType resourceType) {
+        this.resourceType = resourceType;
+    }
+
+    /**
+     * Group of the resource referenced with {@code @resource}.
+     */
+    public String getLinkGroup() {
+        return linkGroup;
+    }
+
+    public void setLinkGroup(String linkGroup) {
+        this.linkGroup = linkGroup;
+    }
+
+    /**
+     * Type of the resource referenced with {@code @resource} or {@code null} if there's no link.
+     */
+    public String getLinkType() {
+        return linkType;
+    }
+
+    public void setLinkType(String linkType) {
+        this.linkType = linkType;
+    }
+
+    /**
+     * Class named by a {@code @resource} tag that couldn't be resolved in a {@code -shard} run, left for
+     * {@link GyroDocMerge} to resolve against the other shards.
+     */
+    public String getLinkClass() {
+        return linkClass;
+    }
+
+    public void setLinkClass(String linkClass) {
+        this.linkClass = linkClass;
+    }
+
+    /**
+     * Group of the subresource embedded with {@code @subresource}.
+     */
+    public String getSubresourceGroup() {
+        return subresourceGroup;
+    }
+
+    public void setSubresourceGroup(String subresourceGroup) {
+        this.subresourceGroup = subresourceGroup;
+    }
+
+    /**
+     * Name of the subresource embedded with {@code @subresource} or {@code null} if its class wasn't found.
+     */
+    public String getSubresourceType() {
+        return subresourceType;
+    }
+
+    public void setSubresourceType(String subresourceType) {
+        this.subresourceType = subresourceType;
+    }
+
+    /**
+     * Comment text with the validation annotation messages already appended.
+     */
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public boolean isOutput() {
+        return output;
+    }
+
+    public void setOutput(boolean output) {
+        this.output = output;
+    }
+
+    public List<AttributeDoc> getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(List<AttributeDoc> attributes) {
+        this.attributes = attributes;
+    }
+
+    void write(DataOutput out) throws IOException {
+        ProviderDoc.writeString(out, name);
+        ProviderDoc.writeString(out, collectionType);
+        ProviderDoc.writeString(out, resourceType != null ? resourceType.name() : null);
+        ProviderDoc.writeString(out, linkGroup);
+        ProviderDoc.writeString(out, linkType);
+        ProviderDoc.writeString(out, linkClass);
+        ProviderDoc.writeString(out, subresourceGroup);
+        ProviderDoc.writeString(out, subresourceType);
+        ProviderDoc.writeString(out, comment);
+        out.writeBoolean(output);
+        out.writeInt(attributes.size());
+
+        for (AttributeDoc attribute : attributes) {
+            attribute.write(out);
+        }
+    }
+
+    static AttributeDoc read(DataInput in) throws IOException {
+        AttributeDoc attribute = new AttributeDoc();
+        attribute.setName(ProviderDoc.readString(in));
+        attribute.setCollectionType(ProviderDoc.readString(in));
+
+        String resourceType = ProviderDoc.readString(in);
+        if (resourceType != null) {
+            attribute.setResourceType(ResourceType.valueOf(resourceType));
+        }
+
+        attribute.setLinkGroup(ProviderDoc.readString(in));
+        attribute.setLinkType(ProviderDoc.readString(in));
+        attribute.setLinkClass(ProviderDoc.readString(in));
+        attribute.setSubresourceGroup(ProviderDoc.readString(in));
+        attribute.setSubresourceType(ProviderDoc.readString(in));
+        attribute.setComment(ProviderDoc.readString(in));
+        attribute.setOutput(in.readBoolean());
+
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            attribute.getAttributes().add(read(in));
+        }
+
+        return attribute;
+    }
+
+    public enum ResourceType {
+        RESOURCE,
+        SUBRESOURCE;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase();
+        }
+    }
+}
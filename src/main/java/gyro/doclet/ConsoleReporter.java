@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import com.sun.javadoc.DocErrorReporter;
+import com.sun.javadoc.SourcePosition;
+
+/**
+ * Reports to the console when there's no javadoc reporter, i.e. in {@link GyroDocRenderer}.
+ */
+public class ConsoleReporter implements DocErrorReporter {
+
+    @Override
+    public void printError(String msg) {
+        System.err.println("error: " + msg);
+    }
+
+    @Override
+    public void printError(SourcePosition pos, String msg) {
+        System.err.println(pos + ": error: " + msg);
+    }
+
+    @Override
+    public void printWarning(String msg) {
+        System.err.println("warning: " + msg);
+    }
+
+    @Override
+    public void printWarning(SourcePosition pos, String msg) {
+        System.err.println(pos + ": warning: " + msg);
+    }
+
+    @Override
+    public void printNotice(String msg) {
+        System.out.println(msg);
+    }
+
+    @Override
+    public void printNotice(SourcePosition pos, String msg) {
+        System.out.println(pos + ": " + msg);
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stores the documentation files of many provider versions by content, so that a file that didn't change between
+ * versions is only stored once:
+ *
+ * <pre>
+ * store/objects/ab/cdef...   file content, named by its SHA-256 hash
+ * store/manifests/1.2.0      one "hash path" line per file of that version
+ * </pre>
+ *
+ * Objects are never modified once written, so the store can be synced to a bucket or CDN without re-uploading
+ * anything but the new objects and the new manifest. The manifest of a version is only written by {@link #commit()},
+ * once the whole version rendered, and replaces the previous one, so that pages removed from the provider are dropped.
+ * Partial runs (i.e. {@code -changed}) update the previous manifest instead. If the store is closed without being
+ * committed, the previous manifest stays current, and the objects already written are left unreferenced.
+ */
+public class ContentStore implements DocOutput {
+
+    private static final String OBJECTS = "objects";
+    private static final String MANIFESTS = "manifests";
+
+    private final File directory;
+    private final String version;
+    private final Map<String, String> manifest;
+    private boolean committed;
+
+    public ContentStore(File directory, String version) throws IOException {
+        this(directory, version, false);
+    }
+
+    /**
+     * @param update If {@code true}, the files are added to the existing manifest of the version, if any.
+     */
+    public ContentStore(File directory, String version, boolean update) throws IOException {
+        if (version == null || version.isEmpty() || version.contains("/") || version.contains(File.separator)) {
+            throw new IllegalArgumentException("Invalid store version: " + version);
+        }
+
+        this.directory = directory;
+        this.version = version;
+
+        File manifestFile = getManifestFile();
+
+        this.manifest = update && manifestFile.exists() ? readManifest(manifestFile) : new TreeMap<>();
+    }
+
+    @Override
+    public void write(String path, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String hash = hash(bytes);
+        File object = getObjectFile(hash);
+
+        if (!object.exists()) {
+            object.getParentFile().mkdirs();
+
+            // Written to a temporary file first so that a concurrent or interrupted run never leaves a partial object.
+            File temporary = File.createTempFile(hash, ".tmp", object.getParentFile());
+
+            try {
+                try (OutputStream output = new FileOutputStream(temporary)) {
+                    output.write(bytes);
+                }
+
+                Files.move(temporary.toPath(), object.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                temporary.delete();
+            }
+        }
+
+        synchronized (manifest) {
+            manifest.put(path, hash);
+        }
+    }
+
+    @Override
+    public boolean hasDirectory(String path) {
+        String prefix = path + "/";
+
+        synchronized (manifest) {
+            return manifest.keySet().stream().anyMatch(p -> p.startsWith(prefix));
+        }
+    }
+
+    /**
+     * Writes the manifest of this version.
+     */
+    @Override
+    public void commit() throws IOException {
+        File manifestFile = getManifestFile();
+        File temporary = new File(manifestFile.getPath() + ".tmp");
+
+        manifestFile.getParentFile().mkdirs();
+
+        synchronized (manifest) {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(temporary), StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> entry : manifest.entrySet()) {
+                    writer.write(entry.getValue());
+                    writer.write(' ');
+                    writer.write(entry.getKey());
+                    writer.write('\n');
+                }
+            }
+        }
+
+        Files.move(temporary.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    /**
+     * Drops the staged manifest if the version wasn't committed, so that the previous manifest stays current.
+     */
+    @Override
+    public void close() {
+        if (!committed) {
+            synchronized (manifest) {
+                manifest.clear();
+            }
+        }
+    }
+
+    /**
+     * Copies all the files of the given version out of the store.
+     *
+     * @return Number of files written.
+     */
+    public static int materialize(File directory, String version, DocOutput output) throws IOException {
+        File manifestFile = new File(new File(directory, MANIFESTS), version);
+
+        if (!manifestFile.exists()) {
+            throw new IOException("No manifest for version " + version + " in " + directory);
+        }
+
+        Map<String, String> manifest = readManifest(manifestFile);
+
+        for (Map.Entry<String, String> entry : manifest.entrySet()) {
+            String hash = entry.getValue();
+            byte[] bytes = Files.readAllBytes(getObjectFile(directory, hash).toPath());
+
+            if (!hash(bytes).equals(hash)) {
+                throw new IOException("Corrupt object " + hash + " for " + entry.getKey());
+            }
+
+            output.write(entry.getKey(), new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        return manifest.size();
+    }
+
+    private File getManifestFile() {
+        return new File(new File(directory, MANIFESTS), version);
+    }
+
+    private File getObjectFile(String hash) {
+        return getObjectFile(directory, hash);
+    }
+
+    private static File getObjectFile(File directory, String hash) {
+        return new File(new File(new File(directory, OBJECTS), hash.substring(0, 2)), hash.substring(2));
+    }
+
+    private static Map<String, String> readManifest(File manifestFile) throws IOException {
+        Map<String, String> manifest = new TreeMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifestFile), StandardCharsets.UTF_8))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                int space = line.indexOf(' ');
+
+                if (space < 0) {
+                    throw new IOException("Invalid manifest line in " + manifestFile + ": " + line);
+                }
+
+                manifest.put(line.substring(space + 1), line.substring(0, space));
+            }
+        }
+
+        return manifest;
+    }
+
+    private static String hash(byte[] bytes) {
+        MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException error) {
+            throw new IllegalStateException(error);
+        }
+
+        StringBuilder hash = new StringBuilder();
+
+        for (byte b : digest.digest(bytes)) {
+            hash.append(String.format("%02x", b));
+        }
+
+        return hash.toString();
+    }
+}
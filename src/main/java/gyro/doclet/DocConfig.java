@@ -0,0 +1,357 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sun.javadoc.DocErrorReporter;
+
+/**
+ * Configuration of a single {@link DocEngine} run. Usually parsed from the doclet options with
+ * {@link #parse(String[][], DocErrorReporter)}, but can be built directly when the engine is embedded.
+ */
+public class DocConfig {
+
+    private static final Map<String, Integer> OPTION_LENGTHS = new HashMap<>();
+
+    static {
+        OPTION_LENGTHS.put("-d", 2);
+        OPTION_LENGTHS.put("-model", 2);
+        OPTION_LENGTHS.put("-lint", 1);
+        OPTION_LENGTHS.put("-groups", 2);
+        OPTION_LENGTHS.put("-resources", 2);
+        OPTION_LENGTHS.put("-changed", 2);
+        OPTION_LENGTHS.put("-inventory", 2);
+        OPTION_LENGTHS.put("-inventory-project", 2);
+        OPTION_LENGTHS.put("-inventory-version", 2);
+        OPTION_LENGTHS.put("-inventory-prefix", 2);
+        OPTION_LENGTHS.put("-split-attributes", 2);
+        OPTION_LENGTHS.put("-split-size", 2);
+        OPTION_LENGTHS.put("-table-format", 2);
+        OPTION_LENGTHS.put("-validate-examples", 1);
+        OPTION_LENGTHS.put("-validate-threads", 2);
+        OPTION_LENGTHS.put("-shard", 1);
+        OPTION_LENGTHS.put("-format", 2);
+        OPTION_LENGTHS.put("-references", 2);
+        OPTION_LENGTHS.put("-store", 2);
+        OPTION_LENGTHS.put("-store-version", 2);
+        OPTION_LENGTHS.put("-memory-report", 2);
+    }
+
+    private String outputDirectory = ".";
+    private String modelFile;
+    private boolean lint;
+    private String groups;
+    private String resources;
+    private String changedFile;
+    private String inventoryFile;
+    private String inventoryProject = "";
+    private String inventoryVersion = "";
+    private String inventoryPrefix = "";
+    private int splitAttributes;
+    private int splitSize;
+    private RstRenderer.TableFormat tableFormat = RstRenderer.TableFormat.LIST_TABLE;
+    private boolean validateExamples;
+    private int validateThreads = Runtime.getRuntime().availableProcessors();
+    private boolean shard;
+    private OutputFormat format = OutputFormat.RST;
+    private String referencesFile;
+    private String storeDirectory;
+    private String storeVersion;
+    private String memoryReportFile;
+
+    public static int optionLength(String option) {
+        return OPTION_LENGTHS.getOrDefault(option, 0);
+    }
+
+    /**
+     * @return {@code null} if any of the options are invalid, after reporting them.
+     */
+    public static DocConfig parse(String[][] options, DocErrorReporter reporter) {
+        DocConfig config = new DocConfig();
+        boolean valid = true;
+
+        for (String[] optionArray : options) {
+            String option = optionArray[0];
+
+            try {
+                if (option.equals("-d")) {
+                    config.setOutputDirectory(optionArray[1]);
+                } else if (option.equals("-model")) {
+                    config.setModelFile(optionArray[1]);
+                } else if (option.equals("-lint")) {
+                    config.setLint(true);
+                } else if (option.equals("-groups")) {
+                    config.setGroups(optionArray[1]);
+                } else if (option.equals("-resources")) {
+                    config.setResources(optionArray[1]);
+                } else if (option.equals("-changed")) {
+                    config.setChangedFile(optionArray[1]);
+                } else if (option.equals("-inventory")) {
+                    config.setInventoryFile(optionArray[1]);
+                } else if (option.equals("-inventory-project")) {
+                    config.setInventoryProject(optionArray[1]);
+                } else if (option.equals("-inventory-version")) {
+                    config.setInventoryVersion(optionArray[1]);
+                } else if (option.equals("-inventory-prefix")) {
+                    config.setInventoryPrefix(optionArray[1]);
+                } else if (option.equals("-split-attributes")) {
+                    config.setSplitAttributes(Integer.parseInt(optionArray[1]));
+                } else if (option.equals("-split-size")) {
+                    config.setSplitSize(Integer.parseInt(optionArray[1]));
+                } else if (option.equals("-table-format")) {
+                    config.setTableFormat(RstRenderer.TableFormat.valueOf(optionArray[1].toUpperCase().replace('-', '_')));
+                } else if (option.equals("-validate-examples")) {
+                    config.setValidateExamples(true);
+                } else if (option.equals("-validate-threads")) {
+                    config.setValidateThreads(Integer.parseInt(optionArray[1]));
+                } else if (option.equals("-shard")) {
+                    config.setShard(true);
+                } else if (option.equals("-format")) {
+                    config.setFormat(OutputFormat.valueOf(optionArray[1].toUpperCase()));
+                } else if (option.equals("-references")) {
+                    config.setReferencesFile(optionArray[1]);
+                } else if (option.equals("-store")) {
+                    config.setStoreDirectory(optionArray[1]);
+                } else if (option.equals("-store-version")) {
+                    config.setStoreVersion(optionArray[1]);
+                } else if (option.equals("-memory-report")) {
+                    config.setMemoryReportFile(optionArray[1]);
+                }
+            } catch (IllegalArgumentException error) {
+                reporter.printError(String.format("Invalid value for %s: %s", option, optionArray[1]));
+                valid = false;
+            }
+        }
+
+        if (config.getModelFile() != null && config.isSelective()) {
+            reporter.printError("-model can't be combined with -groups, -resources or -changed.");
+            valid = false;
+        }
+
+        if (config.isShard() && config.getModelFile() == null) {
+            reporter.printError("-shard requires -model, which is read by GyroDocMerge.");
+            valid = false;
+        }
+
+        if (config.isShard()
+            && (config.getReferencesFile() != null || config.getInventoryFile() != null || config.getStoreDirectory() != null)) {
+            reporter.printError("-shard can't be combined with -references, -inventory or -store, which need every shard.");
+            valid = false;
+        }
+
+        if ((config.getStoreDirectory() == null) != (config.getStoreVersion() == null)) {
+            reporter.printError("-store and -store-version must be used together.");
+            valid = false;
+        }
+
+        return valid ? config : null;
+    }
+
+    public String getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(String outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    public String getModelFile() {
+        return modelFile;
+    }
+
+    public void setModelFile(String modelFile) {
+        this.modelFile = modelFile;
+    }
+
+    public boolean isLint() {
+        return lint;
+    }
+
+    public void setLint(boolean lint) {
+        this.lint = lint;
+    }
+
+    public String getGroups() {
+        return groups;
+    }
+
+    public void setGroups(String groups) {
+        this.groups = groups;
+    }
+
+    public String getResources() {
+        return resources;
+    }
+
+    public void setResources(String resources) {
+        this.resources = resources;
+    }
+
+    public String getChangedFile() {
+        return changedFile;
+    }
+
+    public void setChangedFile(String changedFile) {
+        this.changedFile = changedFile;
+    }
+
+    public boolean isSelective() {
+        return groups != null || resources != null || changedFile != null;
+    }
+
+    public String getInventoryFile() {
+        return inventoryFile;
+    }
+
+    public void setInventoryFile(String inventoryFile) {
+        this.inventoryFile = inventoryFile;
+    }
+
+    public String getInventoryProject() {
+        return inventoryProject;
+    }
+
+    public void setInventoryProject(String inventoryProject) {
+        this.inventoryProject = inventoryProject;
+    }
+
+    public String getInventoryVersion() {
+        return inventoryVersion;
+    }
+
+    public void setInventoryVersion(String inventoryVersion) {
+        this.inventoryVersion = inventoryVersion;
+    }
+
+    public String getInventoryPrefix() {
+        return inventoryPrefix;
+    }
+
+    public void setInventoryPrefix(String inventoryPrefix) {
+        this.inventoryPrefix = inventoryPrefix;
+    }
+
+    public int getSplitAttributes() {
+        return splitAttributes;
+    }
+
+    public void setSplitAttributes(int splitAttributes) {
+        this.splitAttributes = splitAttributes;
+    }
+
+    public int getSplitSize() {
+        return splitSize;
+    }
+
+    public void setSplitSize(int splitSize) {
+        this.splitSize = splitSize;
+    }
+
+    public RstRenderer.TableFormat getTableFormat() {
+        return tableFormat;
+    }
+
+    public void setTableFormat(RstRenderer.TableFormat tableFormat) {
+        this.tableFormat = tableFormat;
+    }
+
+    public boolean isValidateExamples() {
+        return validateExamples;
+    }
+
+    public void setValidateExamples(boolean validateExamples) {
+        this.validateExamples = validateExamples;
+    }
+
+    public int getValidateThreads() {
+        return validateThreads;
+    }
+
+    public void setValidateThreads(int validateThreads) {
+        if (validateThreads < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        this.validateThreads = validateThreads;
+    }
+
+    /**
+     * Whether this run only covers some of the provider's packages, in which case the indexes are left to
+     * {@link GyroDocMerge}.
+     */
+    public boolean isShard() {
+        return shard;
+    }
+
+    public void setShard(boolean shard) {
+        this.shard = shard;
+    }
+
+    public OutputFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(OutputFormat format) {
+        this.format = format;
+    }
+
+    public String getReferencesFile() {
+        return referencesFile;
+    }
+
+    public void setReferencesFile(String referencesFile) {
+        this.referencesFile = referencesFile;
+    }
+
+    public String getStoreDirectory() {
+        return storeDirectory;
+    }
+
+    public void setStoreDirectory(String storeDirectory) {
+        this.storeDirectory = storeDirectory;
+    }
+
+    public String getStoreVersion() {
+        return storeVersion;
+    }
+
+    public void setStoreVersion(String storeVersion) {
+        if (storeVersion.isEmpty() || storeVersion.contains("/") || storeVersion.contains("\\")) {
+            throw new IllegalArgumentException();
+        }
+
+        this.storeVersion = storeVersion;
+    }
+
+    /**
+     * File to write a {@link MemoryReport} of the run to.
+     */
+    public String getMemoryReportFile() {
+        return memoryReportFile;
+    }
+
+    public void setMemoryReportFile(String memoryReportFile) {
+        this.memoryReportFile = memoryReportFile;
+    }
+
+    public enum OutputFormat {
+        RST,
+        HTML
+    }
+}
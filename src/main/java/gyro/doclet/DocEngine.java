@@ -0,0 +1,342 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.DocErrorReporter;
+import com.sun.javadoc.PackageDoc;
+import com.sun.javadoc.RootDoc;
+
+/**
+ * Generates the reference documentation for one provider. The engine keeps no state between runs, so one instance
+ * can be shared by concurrent or back to back runs in the same JVM (i.e. a Gradle worker daemon). Everything a run
+ * needs comes from its {@link RootDoc} and {@link DocConfig}, and all messages go to its reporter.
+ */
+public class DocEngine {
+
+    public boolean run(RootDoc root, DocConfig config, DocErrorReporter reporter) {
+        if (config.isLint()) {
+            return lint(root, reporter);
+        }
+
+        MemoryReport memory = new MemoryReport(config.getMemoryReportFile() != null);
+        boolean written;
+
+        try {
+            written = run(root, config, reporter, memory);
+        } finally {
+            memory.stop();
+        }
+
+        if (memory.isEnabled()) {
+            try {
+                memory.write(new File(config.getMemoryReportFile()));
+            } catch (IOException ioe) {
+                reporter.printError("Unable to write memory report: " + ioe.getMessage());
+                written = false;
+            }
+        }
+
+        return written;
+    }
+
+    private boolean run(RootDoc root, DocConfig config, DocErrorReporter reporter, MemoryReport memory) {
+        // Generate rst file for each resource.
+        // Generate index for each group (i.e. java package) of resources.
+        // Generate index for all groups.
+
+        memory.phase("discover");
+
+        DocSelection selection = new DocSelection();
+
+        if (config.getGroups() != null) {
+            selection.addGroups(config.getGroups());
+        }
+
+        if (config.getResources() != null) {
+            selection.addResources(config.getResources());
+        }
+
+        if (config.getChangedFile() != null) {
+            try {
+                selection.addChangedFiles(new File(config.getChangedFile()));
+            } catch (IOException ioe) {
+                reporter.printError("Unable to read changed files: " + ioe.getMessage());
+                return false;
+            }
+        }
+
+        // Class -> generator, in javadoc order. Finders are created after all the resources, so that they can reuse
+        // the namespace, group and type that their resource already resolved.
+        Map<String, ResourceDocGenerator> classGenerators = new LinkedHashMap<>();
+        Map<String, ResourceDocGenerator> resourceGenerators = new HashMap<>();
+        List<ClassDoc> finderDocs = new ArrayList<>();
+
+        for (ClassDoc doc : root.classes()) {
+            if (doc.isAbstract()) {
+                continue;
+            }
+
+            if (ResourceDocGenerator.isFinder(doc)) {
+                finderDocs.add(doc);
+                classGenerators.put(doc.qualifiedName(), null);
+
+            } else if (ResourceDocGenerator.isResource(doc)) {
+                ResourceDocGenerator generator = new ResourceDocGenerator(root, doc, false, reporter);
+
+                classGenerators.put(doc.qualifiedName(), generator);
+                resourceGenerators.put(doc.containingPackage().name() + "/" + generator.getName(), generator);
+            }
+        }
+
+        for (ClassDoc doc : finderDocs) {
+            ResourceDocGenerator resource = resourceGenerators.get(
+                doc.containingPackage().name() + "/" + ResourceDocGenerator.getResourceType(doc));
+
+            classGenerators.put(doc.qualifiedName(), resource != null
+                ? new ResourceDocGenerator(resource, doc)
+                : new ResourceDocGenerator(root, doc, true, reporter));
+        }
+
+        List<ResourceDocGenerator> generators = new ArrayList<>();
+        String providerPackage = "";
+
+        for (ResourceDocGenerator generator : classGenerators.values()) {
+            generator.setShard(config.isShard());
+
+            generators.add(generator);
+
+            if (providerPackage.equals("")) {
+                providerPackage = generator.getProviderPackage();
+            }
+        }
+
+        Set<ResourceDocGenerator> selectedGenerators = null;
+
+        if (selection.isActive()) {
+            if (selection.isProviderChanged(providerPackage)) {
+                reporter.printNotice("The provider package-info changed, writing all the pages.");
+            } else {
+                selectedGenerators = selection.select(root, generators);
+            }
+        }
+
+        memory.phase("extract");
+
+        ProviderDoc provider = new ProviderDoc();
+        Set<ResourceDoc> selected = selectedGenerators != null ? new HashSet<>() : null;
+        ExampleValidator validator = config.isValidateExamples()
+            ? new ExampleValidator(config.getValidateThreads())
+            : null;
+
+        boolean written;
+
+        // The validation threads are stopped even if the run fails, since the engine may be shared by many runs.
+        try {
+            for (ResourceDocGenerator generator : generators) {
+                long allocated = memory.allocated();
+                ResourceDoc resource;
+
+                if (selectedGenerators == null || selectedGenerators.contains(generator)) {
+                    resource = generator.extract();
+
+                    if (selected != null) {
+                        selected.add(resource);
+                    }
+
+                    if (validator != null) {
+                        validator.submit(resource, generator.getClassDoc().position());
+                    }
+                } else if (config.getReferencesFile() != null) {
+                    // Unselected pages aren't written, but their references are still needed.
+                    resource = generator.extract();
+                } else {
+                    resource = generator.describe();
+                }
+
+                provider.getResources().add(resource);
+                memory.extracted(resource, allocated);
+            }
+
+            PackageDoc rootPackageDoc = root.packageNamed(providerPackage);
+
+            provider.setProviderPackage(providerPackage);
+            provider.setComment(rootPackageDoc != null ? rootPackageDoc.commentText() : "");
+
+            written = write(provider, selected, config, reporter, memory);
+
+            if (validator != null) {
+                memory.phase("validate");
+
+                int problems = validator.report(reporter);
+                reporter.printNotice(String.format("Found %d problems in gyro examples.", problems));
+            }
+        } finally {
+            if (validator != null) {
+                validator.shutdown();
+            }
+        }
+
+        return written;
+    }
+
+    private boolean write(
+        ProviderDoc provider,
+        Set<ResourceDoc> selected,
+        DocConfig config,
+        DocErrorReporter reporter,
+        MemoryReport memory) {
+
+        if (config.getModelFile() != null) {
+            memory.phase("model");
+
+            try {
+                provider.write(new File(config.getModelFile()));
+            } catch (IOException ioe) {
+                reporter.printError("Unable to write documentation model: " + ioe.getMessage());
+                return false;
+            }
+        }
+
+        // Written first so that dependent documentation builds can start right away.
+        if (config.getInventoryFile() != null) {
+            memory.phase("inventory");
+
+            InventoryWriter inventoryWriter = new InventoryWriter();
+
+            inventoryWriter.setProject(config.getInventoryProject());
+            inventoryWriter.setVersion(config.getInventoryVersion());
+            inventoryWriter.setPrefix(config.getInventoryPrefix());
+
+            try {
+                inventoryWriter.write(provider, new File(config.getInventoryFile()));
+            } catch (IOException ioe) {
+                reporter.printError("Unable to write inventory: " + ioe.getMessage());
+                return false;
+            }
+        }
+
+        ReferenceGraph references = null;
+
+        if (config.getReferencesFile() != null) {
+            memory.phase("references");
+
+            references = ReferenceGraph.build(provider);
+
+            File referencesFile = new File(config.getReferencesFile());
+            Map<String, Set<String>> previousTargets;
+
+            try {
+                // Read before it's replaced, to find the pages that lost a reference.
+                previousTargets = selected != null ? ReferenceGraph.readTargets(referencesFile) : null;
+
+                references.write(referencesFile);
+            } catch (IOException ioe) {
+                reporter.printError("Unable to write references: " + ioe.getMessage());
+                return false;
+            }
+
+            // Pages referenced by the selected ones get a new "Referenced by" entry if the reference was just added,
+            // and pages that were referenced by a selected or removed one may have to drop an entry.
+            if (selected != null) {
+                Set<String> selectedKeys = selected.stream().map(ReferenceGraph::key).collect(Collectors.toSet());
+                Set<String> pageKeys = provider.getResources().stream().map(ReferenceGraph::key).collect(Collectors.toSet());
+                Set<String> previousKeys = new HashSet<>();
+
+                for (Map.Entry<String, Set<String>> entry : previousTargets.entrySet()) {
+                    if (selectedKeys.contains(entry.getKey()) || !pageKeys.contains(entry.getKey())) {
+                        previousKeys.addAll(entry.getValue());
+                    }
+                }
+
+                for (ResourceDoc resource : provider.getResources()) {
+                    if (previousKeys.contains(ReferenceGraph.key(resource))
+                        || references.getReferencedBy(resource).stream().anyMatch(r -> selectedKeys.contains(r.getSource().getKey()))) {
+
+                        selected.add(resource);
+                    }
+                }
+            }
+        }
+
+        memory.phase("render");
+
+        boolean written;
+
+        try (DocOutput output = memory.wrap(config.getStoreDirectory() != null
+            ? new ContentStore(new File(config.getStoreDirectory()), config.getStoreVersion(), config.isSelective())
+            : new FileOutput(new File(config.getOutputDirectory())))) {
+
+            if (config.getFormat() == DocConfig.OutputFormat.HTML) {
+                HtmlRenderer renderer = new HtmlRenderer(reporter);
+
+                renderer.setReferences(references);
+                renderer.setIndexes(!config.isShard());
+
+                written = renderer.write(provider, output, selected);
+            } else {
+                RstRenderer renderer = new RstRenderer(reporter);
+
+                renderer.setSplitAttributes(config.getSplitAttributes());
+                renderer.setSplitSize(config.getSplitSize());
+                renderer.setTableFormat(config.getTableFormat());
+                renderer.setReferences(references);
+                renderer.setIndexes(!config.isShard());
+
+                written = renderer.write(provider, output, selected);
+            }
+
+            if (written) {
+                output.commit();
+            }
+        } catch (IOException ioe) {
+            reporter.printError("Unable to write documentation: " + ioe.getMessage());
+            written = false;
+        }
+
+        return written;
+    }
+
+    private boolean lint(RootDoc root, DocErrorReporter reporter) {
+        DocLinter linter = new DocLinter(root);
+
+        for (ClassDoc doc : root.classes()) {
+            if (doc.isAbstract() || (!ResourceDocGenerator.isResource(doc) && !ResourceDocGenerator.isFinder(doc))) {
+                continue;
+            }
+
+            linter.lint(doc);
+        }
+
+        for (DocLinter.Diagnostic diagnostic : linter.getDiagnostics()) {
+            reporter.printError(diagnostic.getPosition(), diagnostic.toString());
+        }
+
+        return linter.getDiagnostics().isEmpty();
+    }
+}
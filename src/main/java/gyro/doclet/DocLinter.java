@@ -0,0 +1,194 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.MethodDoc;
+import com.sun.javadoc.RootDoc;
+import com.sun.javadoc.SourcePosition;
+import com.sun.javadoc.Tag;
+import gyro.core.resource.Output;
+import gyro.core.validation.Required;
+
+/**
+ * Checks resources against the documentation rules in the README without rendering anything:
+ *
+ * <ul>
+ *     <li>Attribute getters must have javadoc.</li>
+ *     <li>Resource class javadoc must include a {@code .. code-block:: gyro} example.</li>
+ *     <li>Attributes are ordered required, then optional, then read-only.</li>
+ *     <li>{@code @subresource} and {@code @resource} tags must point to known classes.</li>
+ * </ul>
+ */
+public class DocLinter {
+
+    private static final String EXAMPLE_BLOCK = ".. code-block:: gyro";
+
+    private final RootDoc root;
+    private final Set<String> linted = new HashSet<>();
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+
+    public DocLinter(RootDoc root) {
+        this.root = root;
+    }
+
+    public void lint(ClassDoc doc) {
+        if (ResourceDocGenerator.isResource(doc) && !doc.commentText().contains(EXAMPLE_BLOCK)) {
+            report(doc.position(), "missing-example", String.format(
+                "%s class javadoc has no '%s' example.", doc.qualifiedName(), EXAMPLE_BLOCK));
+        }
+
+        lintAttributes(doc);
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    private void lintAttributes(ClassDoc classDoc) {
+        if (classDoc == null
+            || classDoc.qualifiedName().startsWith("gyro.core.")
+            || !linted.add(classDoc.qualifiedName())) {
+            return;
+        }
+
+        lintAttributes(classDoc.superclass());
+
+        AttributeOrder previousOrder = AttributeOrder.REQUIRED;
+        String previousName = null;
+
+        for (MethodDoc methodDoc : classDoc.methods()) {
+            String commentText = methodDoc.commentText();
+
+            if (commentText == null || commentText.length() == 0) {
+                if (isAttributeGetter(classDoc, methodDoc)) {
+                    report(methodDoc.position(), "missing-javadoc", String.format(
+                        "%s.%s() has no javadoc.", classDoc.qualifiedName(), methodDoc.name()));
+                }
+
+                continue;
+            }
+
+            AttributeOrder order = ResourceDocGenerator.isAnnotationPresent(methodDoc, Required.class)
+                ? AttributeOrder.REQUIRED
+                : AttributeOrder.OPTIONAL;
+
+            if (ResourceDocGenerator.isAnnotationPresent(methodDoc, Output.class)) {
+                order = AttributeOrder.READ_ONLY;
+            }
+
+            for (Tag tag : methodDoc.tags()) {
+                if (tag.name().equals("@output")) {
+                    order = AttributeOrder.READ_ONLY;
+                } else if (tag.name().equals("@subresource")) {
+                    ClassDoc subresourceDoc = root.classNamed(tag.text());
+
+                    if (subresourceDoc == null) {
+                        report(tag.position(), "unknown-subresource", String.format(
+                            "%s.%s() references unknown subresource %s.",
+                            classDoc.qualifiedName(), methodDoc.name(), tag.text()));
+                    } else {
+                        lintAttributes(subresourceDoc);
+                    }
+                } else if (tag.name().equals("@resource")) {
+                    ClassDoc resourceDoc = root.classNamed(tag.text());
+
+                    if (resourceDoc == null || ResourceDocGenerator.getResourceType(resourceDoc) == null) {
+                        report(tag.position(), "unknown-resource", String.format(
+                            "%s.%s() references %s which isn't a known resource type.",
+                            classDoc.qualifiedName(), methodDoc.name(), tag.text()));
+                    }
+                }
+            }
+
+            if (order.compareTo(previousOrder) < 0) {
+                report(methodDoc.position(), "attribute-order", String.format(
+                    "%s.%s() is %s but follows %s attribute %s().",
+                    classDoc.qualifiedName(), methodDoc.name(), order, previousOrder, previousName));
+            } else {
+                previousOrder = order;
+                previousName = methodDoc.name();
+            }
+        }
+    }
+
+    // Attributes are getters with a matching setter.
+    private boolean isAttributeGetter(ClassDoc classDoc, MethodDoc methodDoc) {
+        if (!methodDoc.isPublic()
+            || methodDoc.isStatic()
+            || methodDoc.parameters().length > 0
+            || !methodDoc.name().startsWith("get")) {
+            return false;
+        }
+
+        String setterName = "set" + methodDoc.name().substring(3);
+
+        return Arrays.stream(classDoc.methods())
+            .anyMatch(m -> m.name().equals(setterName) && m.parameters().length == 1);
+    }
+
+    private void report(SourcePosition position, String rule, String message) {
+        diagnostics.add(new Diagnostic(position, rule, message));
+    }
+
+    private enum AttributeOrder {
+        REQUIRED,
+        OPTIONAL,
+        READ_ONLY;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    public static class Diagnostic {
+
+        private final SourcePosition position;
+        private final String rule;
+        private final String message;
+
+        public Diagnostic(SourcePosition position, String rule, String message) {
+            this.position = position;
+            this.rule = rule;
+            this.message = message;
+        }
+
+        public SourcePosition getPosition() {
+            return position;
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[%s] %s", rule, message);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.sun.javadoc.DocErrorReporter;
+
+/**
+ * Combines the models written by {@code -shard} runs, each over some of the provider's packages, into one
+ * {@link ProviderDoc}. {@code @resource} links that a shard couldn't resolve are resolved against the other shards,
+ * and every link and finder is checked across all of them. Pages that came out differently because of another
+ * shard are collected in {@link #getStale()} so that only those need to be rendered again.
+ */
+public class DocMerger {
+
+    private final DocErrorReporter reporter;
+    private final List<ProviderDoc> shards = new ArrayList<>();
+    private final Set<ResourceDoc> stale = new HashSet<>();
+    private int errors;
+
+    public DocMerger(DocErrorReporter reporter) {
+        this.reporter = reporter;
+    }
+
+    public void add(ProviderDoc shard) {
+        shards.add(shard);
+    }
+
+    public ProviderDoc merge() {
+        ProviderDoc provider = new ProviderDoc();
+
+        // group/name -> shard index, to find pages that were written by more than one shard.
+        Map<String, Integer> pageShards = new HashMap<>();
+        Map<String, ResourceDoc> pages = new HashMap<>();
+        Map<String, ResourceDoc> classes = new HashMap<>();
+
+        for (int i = 0; i < shards.size(); i++) {
+            ProviderDoc shard = shards.get(i);
+
+            if (isBlank(provider.getProviderPackage())) {
+                provider.setProviderPackage(shard.getProviderPackage());
+            }
+
+            // Only the shard with the provider's root package has its comment.
+            if (isBlank(provider.getComment())) {
+                provider.setComment(shard.getComment());
+            }
+
+            for (ResourceDoc resource : shard.getResources()) {
+                String key = key(resource.getGroupName(), resource.getName());
+                Integer previous = pageShards.putIfAbsent(key, i);
+
+                if (previous != null) {
+                    error(String.format("%s is in shards %d and %d.", key, previous + 1, i + 1));
+                    continue;
+                }
+
+                pages.put(key, resource);
+                provider.getResources().add(resource);
+
+                if (resource.getClassName() != null) {
+                    classes.put(resource.getClassName(), resource);
+                }
+            }
+        }
+
+        for (ResourceDoc resource : provider.getResources()) {
+            checkLinks(resource, resource.getAttributes(), pages, classes);
+
+            // Resource and finder pages link to each other, so both change if they came from different shards.
+            if (resource.isFinder()) {
+                String resourceKey = key(resource.getGroupName(), resource.getName().replace(GyroDoclet.FINDER_SUFFIX, ""));
+                Integer resourceShard = pageShards.get(resourceKey);
+
+                if (resourceShard == null) {
+                    reporter.printWarning(String.format("No resource for finder %s.", key(resource.getGroupName(), resource.getName())));
+                } else if (!resourceShard.equals(pageShards.get(key(resource.getGroupName(), resource.getName())))) {
+                    stale.add(resource);
+                    stale.add(pages.get(resourceKey));
+                }
+            }
+        }
+
+        return provider;
+    }
+
+    private void checkLinks(ResourceDoc resource, List<AttributeDoc> attributes, Map<String, ResourceDoc> pages, Map<String, ResourceDoc> classes) {
+        for (AttributeDoc attribute : attributes) {
+            if (attribute.getLinkClass() != null) {
+                ResourceDoc target = classes.get(attribute.getLinkClass());
+
+                if (target == null || target.isFinder() || target.isSubresource()) {
+                    error(String.format(
+                        "Not a resource type!: %s in %s",
+                        attribute.getLinkClass(),
+                        key(resource.getGroupName(), resource.getName())));
+                } else {
+                    attribute.setLinkGroup(target.getGroupName());
+                    attribute.setLinkType(target.getName());
+                    attribute.setLinkClass(null);
+                    stale.add(resource);
+                }
+            } else if (attribute.getLinkType() != null && !pages.containsKey(key(attribute.getLinkGroup(), attribute.getLinkType()))) {
+                error(String.format(
+                    "Link to missing resource %s in %s",
+                    key(attribute.getLinkGroup(), attribute.getLinkType()),
+                    key(resource.getGroupName(), resource.getName())));
+            }
+
+            checkLinks(resource, attribute.getAttributes(), pages, classes);
+        }
+    }
+
+    /**
+     * @return Pages whose content depends on another shard and have to be rendered again.
+     */
+    public Set<ResourceDoc> getStale() {
+        return stale;
+    }
+
+    /**
+     * @return Number of errors reported by {@link #merge()}.
+     */
+    public int getErrors() {
+        return errors;
+    }
+
+    private void error(String message) {
+        reporter.printError(message);
+        errors++;
+    }
+
+    private static String key(String group, String name) {
+        return group + "/" + name;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
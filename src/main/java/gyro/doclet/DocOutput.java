@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination of the rendered documentation files. Paths are relative to the root of the documentation and always
+ * use {@code /} as the separator.
+ */
+public interface DocOutput extends Closeable {
+
+    void write(String path, String content) throws IOException;
+
+    /**
+     * @return {@code true} if the directory already had files in it before this run.
+     */
+    boolean hasDirectory(String path);
+
+    /**
+     * Called once all the files were written successfully. Outputs that publish the files as a whole, i.e.
+     * {@link ContentStore}, only do so here, and drop them on {@link #close()} otherwise.
+     */
+    default void commit() throws IOException {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
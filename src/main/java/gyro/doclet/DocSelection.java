@@ -0,0 +1,187 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.RootDoc;
+import com.sun.javadoc.SourcePosition;
+
+/**
+ * Limits generation to some groups, resource types or changed source files. Pages that embed or link to a selected
+ * class through {@code @subresource} or {@code @resource} are selected as well, and resources are always selected
+ * together with their finder.
+ */
+public class DocSelection {
+
+    private final Set<String> groups = new HashSet<>();
+    private final Set<String> resources = new HashSet<>();
+    private final Set<String> changedFiles = new HashSet<>();
+
+    /**
+     * @param list Comma separated list of group names (i.e. {@code EC2}) or group directories.
+     */
+    public void addGroups(String list) {
+        for (String group : list.split(",")) {
+            if (!group.trim().isEmpty()) {
+                groups.add(RstRenderer.groupDir(group.trim()));
+            }
+        }
+    }
+
+    /**
+     * @param list Comma separated list of resource types, with or without the namespace (i.e. {@code aws::instance}).
+     */
+    public void addResources(String list) {
+        for (String resource : list.split(",")) {
+            resource = resource.trim();
+
+            if (!resource.isEmpty()) {
+                int separator = resource.indexOf("::");
+                resources.add(separator >= 0 ? resource.substring(separator + 2) : resource);
+            }
+        }
+    }
+
+    /**
+     * @param listFile File with one changed source path per line, such as the output of {@code git diff --name-only}.
+     */
+    public void addChangedFiles(File listFile) throws IOException {
+        for (String line : Files.readAllLines(listFile.toPath(), StandardCharsets.UTF_8)) {
+            line = normalize(line.trim());
+
+            if (line.startsWith("./")) {
+                line = line.substring(2);
+            }
+
+            if (line.endsWith(".java")) {
+                changedFiles.add(line);
+            }
+        }
+    }
+
+    public boolean isActive() {
+        return !groups.isEmpty() || !resources.isEmpty() || !changedFiles.isEmpty();
+    }
+
+    /**
+     * @return {@code true} if the package-info of the provider package changed. It holds the namespace and the
+     *         comment of the provider index, so every page has to be written again.
+     */
+    public boolean isProviderChanged(String providerPackage) {
+        if (providerPackage.isEmpty()) {
+            return false;
+        }
+
+        String providerDirectory = providerPackage.replace('.', '/') + "/";
+
+        for (String changedFile : changedFiles) {
+            if (changedFile.endsWith("package-info.java")) {
+                String changedDirectory = changedFile.substring(0, changedFile.lastIndexOf('/') + 1);
+
+                if (changedDirectory.equals(providerDirectory) || changedDirectory.endsWith("/" + providerDirectory)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    public Set<ResourceDocGenerator> select(RootDoc root, List<ResourceDocGenerator> generators) {
+        Set<String> seeds = new HashSet<>();
+
+        if (!changedFiles.isEmpty()) {
+            for (ClassDoc classDoc : root.classes()) {
+                if (isChanged(classDoc.position())) {
+                    seeds.add(classDoc.qualifiedName());
+                }
+            }
+        }
+
+        for (ResourceDocGenerator generator : generators) {
+            if ((generator.getGroupName() != null && groups.contains(RstRenderer.groupDir(generator.getGroupName())))
+                || resources.contains(generator.getName().replace(GyroDoclet.FINDER_SUFFIX, ""))) {
+                seeds.add(generator.getClassDoc().qualifiedName());
+            }
+        }
+
+        Set<String> selectedPages = new HashSet<>();
+
+        for (ResourceDocGenerator generator : generators) {
+            if (!Collections.disjoint(generator.getReferences(), seeds)) {
+                selectedPages.add(pageKey(generator));
+            }
+        }
+
+        Set<ResourceDocGenerator> selected = new HashSet<>();
+
+        for (ResourceDocGenerator generator : generators) {
+            if (selectedPages.contains(pageKey(generator))) {
+                selected.add(generator);
+            }
+        }
+
+        return selected;
+    }
+
+    // Resource and finder share a key so that they're always written together.
+    private String pageKey(ResourceDocGenerator generator) {
+        return generator.getGroupName() + "/" + generator.getName().replace(GyroDoclet.FINDER_SUFFIX, "");
+    }
+
+    private boolean isChanged(SourcePosition position) {
+        if (position == null || position.file() == null) {
+            return false;
+        }
+
+        String path = normalize(position.file().getPath());
+        String directory = path.substring(0, path.lastIndexOf('/') + 1);
+
+        for (String changedFile : changedFiles) {
+            // Changing the package-info can change the group of every class in the package.
+            if (changedFile.endsWith("package-info.java")) {
+                String changedDirectory = changedFile.substring(0, changedFile.lastIndexOf('/') + 1);
+
+                // Without a directory, it's the package-info of the default package, which has no resources.
+                if (changedDirectory.isEmpty()) {
+                    continue;
+                }
+
+                if (directory.equals(changedDirectory) || directory.endsWith("/" + changedDirectory)) {
+                    return true;
+                }
+            } else if (path.equals(changedFile) || path.endsWith("/" + changedFile)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String normalize(String path) {
+        return path.replace(File.separatorChar, '/');
+    }
+}
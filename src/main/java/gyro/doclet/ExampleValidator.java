@@ -0,0 +1,336 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.sun.javadoc.DocErrorReporter;
+import com.sun.javadoc.SourcePosition;
+import gyro.parser.antlr4.GyroLexer;
+import gyro.parser.antlr4.GyroParser;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+/**
+ * Validates the {@code .. code-block:: gyro} examples in class comments on a separate thread pool while the
+ * documentation is rendered. Each example is parsed with the gyro language parser, and attributes set on the
+ * documented resource are checked against its documented attributes.
+ */
+public class ExampleValidator {
+
+    private static final String EXAMPLE_BLOCK = ".. code-block:: gyro";
+    private static final Pattern RESOURCE_START = Pattern.compile("^(\\S+::\\S+)\\s+.*$");
+    private static final Pattern KEY = Pattern.compile("^([\\w-]+)\\s*:.*$");
+    private static final Pattern BLOCK_START = Pattern.compile("^([\\w-]+)$");
+
+    // Lexers and parsers are expensive to create but can be reset for every example.
+    private static final ThreadLocal<GyroLexer> LEXERS = ThreadLocal.withInitial(() -> {
+        GyroLexer lexer = new GyroLexer(null);
+        lexer.removeErrorListeners();
+        return lexer;
+    });
+
+    private static final ThreadLocal<GyroParser> PARSERS = ThreadLocal.withInitial(() -> {
+        GyroParser parser = new GyroParser(null);
+        parser.removeErrorListeners();
+        return parser;
+    });
+
+    private final ExecutorService executor;
+    private final List<Validation> validations = new ArrayList<>();
+
+    public ExampleValidator(int threads) {
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "gyro-doclet-example-validator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the examples of the given resource for validation and returns immediately.
+     */
+    public void submit(ResourceDoc resource, SourcePosition position) {
+        if (resource.isSubresource() || resource.getComment() == null) {
+            return;
+        }
+
+        List<String> examples = findExamples(ResourceDocGenerator.trim(resource.getComment()));
+
+        if (!examples.isEmpty()) {
+            validations.add(new Validation(position, executor.submit(() -> validate(resource, examples))));
+        }
+    }
+
+    /**
+     * Waits for all the queued validations and reports their problems as warnings.
+     *
+     * @return Number of problems found.
+     */
+    public int report(DocErrorReporter reporter) {
+        int problems = 0;
+
+        try {
+            for (Validation validation : validations) {
+                try {
+                    for (String problem : validation.result.get()) {
+                        reporter.printWarning(validation.position, problem);
+                        problems++;
+                    }
+                } catch (ExecutionException error) {
+                    reporter.printWarning(validation.position, "Unable to validate example: " + error.getCause());
+                    problems++;
+                }
+            }
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return problems;
+    }
+
+    /**
+     * Stops the validation threads without waiting for the queued validations. Called after {@link #report}, or
+     * instead of it if the run failed.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    static List<String> findExamples(String comment) {
+        List<String> examples = new ArrayList<>();
+        String[] lines = comment.split("\n");
+
+        for (int i = 0; i < lines.length; i++) {
+            int directiveIndent = lines[i].indexOf(EXAMPLE_BLOCK);
+
+            if (directiveIndent < 0 || !lines[i].trim().equals(EXAMPLE_BLOCK)) {
+                continue;
+            }
+
+            List<String> block = new ArrayList<>();
+
+            for (i++; i < lines.length; i++) {
+                String line = lines[i];
+
+                if (!line.trim().isEmpty() && indentation(line) <= directiveIndent) {
+                    i--;
+                    break;
+                }
+
+                block.add(line);
+            }
+
+            int indent = block.stream()
+                .filter(l -> !l.trim().isEmpty())
+                .mapToInt(ExampleValidator::indentation)
+                .min()
+                .orElse(0);
+
+            examples.add(block.stream()
+                .map(l -> l.length() > indent ? l.substring(indent) : l.trim())
+                .collect(Collectors.joining("\n")).trim() + "\n");
+        }
+
+        return examples;
+    }
+
+    private static int indentation(String line) {
+        int indent = 0;
+
+        while (indent < line.length() && Character.isWhitespace(line.charAt(indent))) {
+            indent++;
+        }
+
+        return indent;
+    }
+
+    private List<String> validate(ResourceDoc resource, List<String> examples) {
+        List<String> problems = new ArrayList<>();
+        String resourceName = String.format(
+            "%s::%s",
+            resource.getNamespace(),
+            resource.getName().replace(GyroDoclet.FINDER_SUFFIX, ""));
+
+        for (int i = 0; i < examples.size(); i++) {
+            String example = examples.get(i);
+            String label = String.format("%s example %d", resourceName, i + 1);
+
+            for (String error : parse(example)) {
+                problems.add(String.format("%s: %s", label, error));
+            }
+
+            if (!resource.isFinder() && resource.isDocumented()) {
+                checkAttributes(label, resourceName, resource.getAttributes(), example, problems);
+            }
+        }
+
+        return problems;
+    }
+
+    private List<String> parse(String example) {
+        List<String> errors = new ArrayList<>();
+
+        BaseErrorListener listener = new BaseErrorListener() {
+
+            @Override
+            public void syntaxError(
+                Recognizer<?, ?> recognizer,
+                Object offendingSymbol,
+                int line,
+                int charPositionInLine,
+                String msg,
+                RecognitionException e) {
+                errors.add(String.format("line %d:%d %s", line, charPositionInLine, msg));
+            }
+        };
+
+        GyroLexer lexer = LEXERS.get();
+        GyroParser parser = PARSERS.get();
+
+        try {
+            lexer.setInputStream(CharStreams.fromString(example));
+            lexer.addErrorListener(listener);
+
+            parser.setTokenStream(new CommonTokenStream(lexer));
+            parser.addErrorListener(listener);
+            parser.file();
+        } finally {
+            lexer.removeErrorListeners();
+            parser.removeErrorListeners();
+        }
+
+        return errors;
+    }
+
+    // Walks the example line by line, tracking nested subresource blocks, since the attribute keys are all that's
+    // needed from it.
+    private void checkAttributes(
+        String label,
+        String resourceName,
+        List<AttributeDoc> attributes,
+        String example,
+        List<String> problems) {
+        Deque<Map<String, AttributeDoc>> blocks = new ArrayDeque<>();
+        int nesting = 0;
+        int lineNumber = 0;
+
+        for (String line : example.split("\n")) {
+            lineNumber++;
+            String trimmed = line.trim();
+
+            if (nesting > 0) {
+                nesting += nesting(trimmed);
+                continue;
+            }
+
+            if (blocks.isEmpty()) {
+                Matcher resourceMatcher = RESOURCE_START.matcher(trimmed);
+
+                if (resourceMatcher.matches() && resourceMatcher.group(1).equals(resourceName)) {
+                    blocks.push(index(attributes));
+                }
+
+                continue;
+            }
+
+            if (trimmed.equals("end")) {
+                blocks.pop();
+                continue;
+            }
+
+            Map<String, AttributeDoc> block = blocks.peek();
+            Matcher keyMatcher = KEY.matcher(trimmed);
+            Matcher blockMatcher = BLOCK_START.matcher(trimmed);
+
+            if (keyMatcher.matches()) {
+                String key = keyMatcher.group(1);
+
+                if (block != null && !block.containsKey(key)) {
+                    problems.add(String.format("%s: line %d unknown attribute '%s'", label, lineNumber, key));
+                }
+
+                nesting = Math.max(0, nesting(trimmed));
+            } else if (blockMatcher.matches()) {
+                String key = blockMatcher.group(1);
+                AttributeDoc subresource = block != null ? block.get(key) : null;
+
+                if (block != null && subresource == null) {
+                    problems.add(String.format("%s: line %d unknown subresource '%s'", label, lineNumber, key));
+                }
+
+                blocks.push(subresource != null ? index(subresource.getAttributes()) : null);
+            }
+        }
+    }
+
+    private Map<String, AttributeDoc> index(List<AttributeDoc> attributes) {
+        return attributes.stream().collect(Collectors.toMap(AttributeDoc::getName, Function.identity(), (a, b) -> a));
+    }
+
+    // Change in bracket depth so that multi-line lists and maps are skipped.
+    private int nesting(String line) {
+        int nesting = 0;
+        char quote = 0;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[' || c == '{') {
+                nesting++;
+            } else if (c == ']' || c == '}') {
+                nesting--;
+            }
+        }
+
+        return nesting;
+    }
+
+    private static class Validation {
+
+        private final SourcePosition position;
+        private final Future<List<String>> result;
+
+        Validation(SourcePosition position, Future<List<String>> result) {
+            this.position = position;
+            this.result = result;
+        }
+    }
+}
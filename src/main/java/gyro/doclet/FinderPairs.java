@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package gyro.doclet;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resources and their finders, paired once by group and resource type, with the link targets and headers that
+ * the two pages use to link to each other.
+ */
+public class FinderPairs {
+
+    private final Map<String, Map<String, Pair>> pairs = new HashMap<>();
+
+    public static FinderPairs build(ProviderDoc provider) {
+        FinderPairs index = new FinderPairs();
+        Map<String, Map<String, ResourceDoc>> finders = new HashMap<>();
+
+        for (ResourceDoc resource : provider.getResources()) {
+            if (resource.isFinder() && resource.getGroupName() != null) {
+                finders.computeIfAbsent(resource.getGroupName(), g -> new HashMap<>())
+                    .put(resource.getName().substring(0, resource.getName().length() - GyroDoclet.FINDER_SUFFIX.length()), resource);
+            }
+        }
+
+        for (ResourceDoc resource : provider.getResources()) {
+            if (resource.isFinder() || resource.getGroupName() == null) {
+                continue;
+            }
+
+            Map<String, ResourceDoc> groupFinders = finders.get(resource.getGroupName());
+            ResourceDoc finder = groupFinders != null ? groupFinders.get(resource.getName()) : null;
+
+            if (finder != null) {
+                index.pairs.computeIfAbsent(resource.getGroupName(), g -> new HashMap<>())
+                    .put(resource.getName(), new Pair(resource, finder));
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * @param type Resource type, without {@link GyroDoclet#FINDER_SUFFIX}.
+     * @return {@code null} if the resource has no finder, or the finder no resource.
+     */
+    public Pair get(String group, String type) {
+        Map<String, Pair> groupPairs = pairs.get(group);
+
+        return groupPairs != null ? groupPairs.get(type) : null;
+    }
+
+    /**
+     * Pair of the given resource or finder page.
+     */
+    public Pair get(ResourceDoc resource) {
+        String type = resource.isFinder()
+            ? resource.getName().substring(0, resource.getName().length() - GyroDoclet.FINDER_SUFFIX.length())
+            : resource.getName();
+
+        return get(resource.getGroupName(), type);
+    }
+
+    public static class Pair {
+
+        private final ResourceDoc resource;
+        private final ResourceDoc finder;
+        private final String resourceLink;
+        private final String queryLink;
+        private final String resourceHeader;
+        private final String finderHeader;
+
+        Pair(ResourceDoc resource, ResourceDoc finder) {
+            String group = resource.getGroupName();
+            String type = resource.getName();
+
+            this.resource = resource;
+            this.finder = finder;
+            this.resourceLink = String.format(GyroDoclet.RESOURCE_LINK_PATTERN, group, type);
+            this.queryLink = String.format(GyroDoclet.QUERY_LINK_PATTERN, group, type);
+            this.resourceHeader = ".. _" + resourceLink + ":\n\n"
+                + ".. rst-class:: .query-resource-link\n"
+                + ":doc:`Query <" + finder.getName() + ">`\n\n";
+            this.finderHeader = ".. _" + queryLink + ":\n\n"
+                + ".. rst-class:: .query-resource-link\n"
+                + ":doc:`Back to resource <" + type + ">`\n\n";
+        }
+
+        public ResourceDoc getResource() {
+            return resource;
+        }
+
+        public ResourceDoc getFinder() {
+            return finder;
+        }
+
+        /**
+         * Target of the {@code @resource} links to the resource page.
+         */
+        public String getResourceLink() {
+            return resourceLink;
+        }
+
+        public String getQueryLink() {
+            return queryLink;
+        }
+
+        /**
+         * Start of the resource page, with its link target and a link to the finder page.
+         */
+        public String getResourceHeader() {
+            return resourceHeader;
+        }
+
+        /**
+         * Start of the finder page, with its link target and a link back to the resource page.
+         */
+        public String getFinderHeader() {
+            return finderHeader;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges the output of doclet runs with {@code -shard}, each over some of the provider's packages and usually on
+ * separate machines, into one documentation tree:
+ *
+ * <pre>
+ * javadoc -doclet gyro.doclet.GyroDoclet -shard -model shard-1.model -d output gyro.aws gyro.aws.ec2 ...
+ * javadoc -doclet gyro.doclet.GyroDoclet -shard -model shard-2.model -d output gyro.aws.iam ...
+ * java -cp gyro-doclet.jar gyro.doclet.GyroDocMerge -d output shard-1.model shard-2.model
+ * </pre>
+ *
+ * The shards write the resource pages. The merge writes the group and provider indexes, re-renders the pages that
+ * link across shards and fails if any link or finder doesn't resolve. The rendering options must match the shards'.
+ */
+public class GyroDocMerge {
+
+    public static void main(String[] args) {
+        String outputDirectory = ".";
+        DocConfig.OutputFormat format = DocConfig.OutputFormat.RST;
+        List<String> modelFiles = new ArrayList<>();
+        RstRenderer renderer = new RstRenderer();
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+
+            try {
+                if (option.equals("-d") && i + 1 < args.length) {
+                    outputDirectory = args[++i];
+                } else if (option.equals("-format") && i + 1 < args.length) {
+                    format = DocConfig.OutputFormat.valueOf(args[++i].toUpperCase());
+                } else if (option.equals("-split-attributes") && i + 1 < args.length) {
+                    renderer.setSplitAttributes(Integer.parseInt(args[++i]));
+                } else if (option.equals("-split-size") && i + 1 < args.length) {
+                    renderer.setSplitSize(Integer.parseInt(args[++i]));
+                } else if (option.equals("-table-format") && i + 1 < args.length) {
+                    renderer.setTableFormat(RstRenderer.TableFormat.valueOf(args[++i].toUpperCase().replace('-', '_')));
+                } else if (option.startsWith("-")) {
+                    System.err.println("Unknown option: " + option);
+                    usage();
+                } else {
+                    modelFiles.add(option);
+                }
+            } catch (IllegalArgumentException error) {
+                System.err.println(String.format("Invalid value for %s: %s", option, args[i]));
+                usage();
+            }
+        }
+
+        if (modelFiles.isEmpty()) {
+            usage();
+        }
+
+        ConsoleReporter reporter = new ConsoleReporter();
+        DocMerger merger = new DocMerger(reporter);
+
+        for (String modelFile : modelFiles) {
+            try {
+                merger.add(ProviderDoc.read(new File(modelFile)));
+            } catch (IOException ioe) {
+                System.err.println("Unable to read documentation model: " + ioe.getMessage());
+                System.exit(1);
+            }
+        }
+
+        ProviderDoc provider = merger.merge();
+        boolean written;
+
+        try (DocOutput output = new FileOutput(new File(outputDirectory))) {
+            if (format == DocConfig.OutputFormat.HTML) {
+                HtmlRenderer htmlRenderer = new HtmlRenderer(reporter);
+
+                htmlRenderer.setIndexes(false);
+                written = htmlRenderer.write(provider, output, merger.getStale())
+                    & htmlRenderer.writeIndexes(provider, output);
+            } else {
+                renderer.setIndexes(false);
+                written = renderer.write(provider, output, merger.getStale())
+                    & renderer.writeIndexes(provider, output);
+            }
+        } catch (IOException ioe) {
+            System.err.println("Unable to write documentation: " + ioe.getMessage());
+            written = false;
+        }
+
+        reporter.printNotice(String.format(
+            "Merged %d shards, rendered %d pages again, found %d problems.",
+            modelFiles.size(),
+            merger.getStale().size(),
+            merger.getErrors()));
+
+        if (!written || merger.getErrors() > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: GyroDocMerge [-d <output directory>] [-format rst|html] [-split-attributes <n>] [-split-size <n>]"
+            + " [-table-format list-table|csv] <shard model>...");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Renders the reference documentation from a model file written by the doclet's {@code -model} option, without
+ * running javadoc:
+ *
+ * <pre>
+ * java -cp gyro-doclet.jar gyro.doclet.GyroDocRenderer -model docs.model -d output
+ * </pre>
+ *
+ * With {@code -store} and {@code -store-version}, the files are written to a {@link ContentStore} instead.
+ */
+public class GyroDocRenderer {
+
+    public static void main(String[] args) {
+        String outputDirectory = ".";
+        String modelFile = null;
+        String storeDirectory = null;
+        String storeVersion = null;
+        DocConfig.OutputFormat format = DocConfig.OutputFormat.RST;
+        String referencesFile = null;
+        RstRenderer renderer = new RstRenderer();
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+
+            try {
+                if (option.equals("-d") && i + 1 < args.length) {
+                    outputDirectory = args[++i];
+                } else if (option.equals("-model") && i + 1 < args.length) {
+                    modelFile = args[++i];
+                } else if (option.equals("-format") && i + 1 < args.length) {
+                    format = DocConfig.OutputFormat.valueOf(args[++i].toUpperCase());
+                } else if (option.equals("-references") && i + 1 < args.length) {
+                    referencesFile = args[++i];
+                } else if (option.equals("-store") && i + 1 < args.length) {
+                    storeDirectory = args[++i];
+                } else if (option.equals("-store-version") && i + 1 < args.length) {
+                    storeVersion = args[++i];
+                } else if (option.equals("-split-attributes") && i + 1 < args.length) {
+                    renderer.setSplitAttributes(Integer.parseInt(args[++i]));
+                } else if (option.equals("-split-size") && i + 1 < args.length) {
+                    renderer.setSplitSize(Integer.parseInt(args[++i]));
+                } else if (option.equals("-table-format") && i + 1 < args.length) {
+                    renderer.setTableFormat(RstRenderer.TableFormat.valueOf(args[++i].toUpperCase().replace('-', '_')));
+                } else {
+                    System.err.println("Unknown option: " + option);
+                    usage();
+                }
+            } catch (IllegalArgumentException error) {
+                System.err.println(String.format("Invalid value for %s: %s", option, args[i]));
+                usage();
+            }
+        }
+
+        if (modelFile == null || (storeDirectory == null) != (storeVersion == null)) {
+            usage();
+        }
+
+        ProviderDoc provider;
+
+        try {
+            provider = ProviderDoc.read(new File(modelFile));
+        } catch (IOException ioe) {
+            System.err.println("Unable to read documentation model: " + ioe.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        HtmlRenderer htmlRenderer = new HtmlRenderer();
+
+        if (referencesFile != null) {
+            ReferenceGraph references = ReferenceGraph.build(provider);
+
+            try {
+                references.write(new File(referencesFile));
+            } catch (IOException ioe) {
+                System.err.println("Unable to write references: " + ioe.getMessage());
+                System.exit(1);
+            }
+
+            renderer.setReferences(references);
+            htmlRenderer.setReferences(references);
+        }
+
+        boolean written;
+
+        try (DocOutput output = storeDirectory != null
+            ? new ContentStore(new File(storeDirectory), storeVersion)
+            : new FileOutput(new File(outputDirectory))) {
+
+            written = format == DocConfig.OutputFormat.HTML
+                ? htmlRenderer.write(provider, output, null)
+                : renderer.write(provider, output, null);
+
+            if (written) {
+                output.commit();
+            }
+        } catch (IOException ioe) {
+            System.err.println("Unable to write documentation: " + ioe.getMessage());
+            written = false;
+        }
+
+        if (!written) {
+            System.exit(1);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: GyroDocRenderer -model <file> [-d <output directory> | -store <directory> -store-version <version>]"
+            + " [-format rst|html] [-references <file>] [-split-attributes <n>] [-split-size <n>] [-table-format list-table|csv]");
+        System.exit(2);
+    }
+}
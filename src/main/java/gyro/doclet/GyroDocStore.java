@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Materializes one version of the documentation out of a {@link ContentStore} written by the doclet's {@code -store}
+ * option:
+ *
+ * <pre>
+ * java -cp gyro-doclet.jar gyro.doclet.GyroDocStore -store docs-store -store-version 1.2.0 -d output
+ * </pre>
+ */
+public class GyroDocStore {
+
+    public static void main(String[] args) {
+        String outputDirectory = ".";
+        String storeDirectory = null;
+        String storeVersion = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+
+            if (option.equals("-d") && i + 1 < args.length) {
+                outputDirectory = args[++i];
+            } else if (option.equals("-store") && i + 1 < args.length) {
+                storeDirectory = args[++i];
+            } else if (option.equals("-store-version") && i + 1 < args.length) {
+                storeVersion = args[++i];
+            } else {
+                System.err.println("Unknown option: " + option);
+                usage();
+            }
+        }
+
+        if (storeDirectory == null || storeVersion == null) {
+            usage();
+        }
+
+        try (DocOutput output = new FileOutput(new File(outputDirectory))) {
+            int files = ContentStore.materialize(new File(storeDirectory), storeVersion, output);
+
+            System.out.println(String.format("Wrote %d files for version %s to %s", files, storeVersion, outputDirectory));
+        } catch (IOException ioe) {
+            System.err.println("Unable to materialize documentation: " + ioe.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: GyroDocStore -store <directory> -store-version <version> [-d <output directory>]");
+        System.exit(2);
+    }
+}
@@ -16,18 +16,8 @@
 
 package gyro.doclet;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.DocErrorReporter;
 import com.sun.javadoc.Doclet;
-import com.sun.javadoc.PackageDoc;
 import com.sun.javadoc.RootDoc;
 
 public class GyroDoclet extends Doclet {
@@ -40,209 +30,20 @@ public class GyroDoclet extends Doclet {
 
     protected static final String FINDER_SUFFIX = "-finder";
 
-    public static boolean start(RootDoc root) {
-        // Generate rst file for each resource.
-        // Generate index for each group (i.e. java package) of resources.
-        // Generate index for all groups.
-
-        String outputDirectory = ".";
-        for (int i = 0; i < root.options().length; i++) {
-            String[] optionArray = root.options()[i];
-            String option = optionArray[0];
-
-            if (option.equals("-d")) {
-                outputDirectory = optionArray[1];
-            }
-
-        }
-
-        // group -> "resource -> rst"
-        Map<String, Map<String, String>> docs = new HashMap<>();
-        String providerPackage = "";
-
-        for (ClassDoc doc : root.classes()) {
-            if (doc.isAbstract() || (!ResourceDocGenerator.isResource(doc) && !ResourceDocGenerator.isFinder(doc))) {
-                continue;
-            }
-
-            ResourceDocGenerator generator = new ResourceDocGenerator(root, doc, ResourceDocGenerator.isFinder(doc));
-
-            Map<String, String> groupDocs = docs.computeIfAbsent(generator.getGroupName(), m -> new HashMap());
-
-            groupDocs.put(generator.getName(), generator.generate());
-
-            if (providerPackage.equals("")) {
-                providerPackage = generator.getProviderPackage();
-            }
-        }
-
-        /*
-        AWS Provider
-        ------------
-
-        .. toctree::
-            :maxdepth: 1
-
-           autoscaling-groups/index
-           ec2/index
-         */
-
-        List<String> groupDirs = new ArrayList<>();
-        for (String group : docs.keySet()) {
-            if (group != null) {
-                String groupDir = group.toLowerCase().replaceAll(" ", "-");
-
-                new File(outputDirectory + File.separator + groupDir).mkdirs();
-
-                // Output individual resource files.
-                Map<String, String> resources = docs.get(group);
-                for (String resource : resources.keySet()) {
-                    String rst = resources.get(resource);
-
-                    if(!resource.endsWith(FINDER_SUFFIX)) {
-
-                        String finderResource = resource + FINDER_SUFFIX;
-                        if (resources.containsKey(finderResource)) {
-                            String finderRst = resources.get(finderResource);
-                            String resourceLink = String.format(RESOURCE_LINK_PATTERN, group, resource);
-                            String queryLink = String.format(QUERY_LINK_PATTERN, group, resource);
-
-                            StringBuilder sb  = new StringBuilder();
-                            rst = sb.append(".. _").append(resourceLink).append(":")
-                                .append("\n\n")
-                                .append(".. rst-class:: .query-resource-link")
-                                .append("\n")
-                                .append(":doc:`Query <").append(resource).append(FINDER_SUFFIX).append(">`")
-                                .append("\n\n")
-                                .append(rst).toString();
-
-                            sb = new StringBuilder();
-                            finderRst = sb.append(".. _").append(queryLink).append(":")
-                                .append("\n\n")
-                                .append(".. rst-class:: .query-resource-link")
-                                .append("\n")
-                                .append(":doc:`Back to resource <").append(resource).append(">`")
-                                .append("\n\n")
-                                .append(finderRst).toString();
-
-                            //Resource
-                            try (FileWriter writer = new FileWriter(outputDirectory + File.separator + groupDir + File.separator + resource + ".rst")) {
-                                writer.write(rst);
-                            } catch (IOException ioe) {
-                                ioe.printStackTrace();
-                            }
+    private static final DocEngine ENGINE = new DocEngine();
 
-                            //Finder
-                            try (FileWriter writer = new FileWriter(outputDirectory + File.separator + groupDir + File.separator + finderResource + ".rst")) {
-                                writer.write(finderRst);
-                            } catch (IOException ioe) {
-                                ioe.printStackTrace();
-                            }
-
-                        } else { //No finder
-                            try (FileWriter writer = new FileWriter(outputDirectory + File.separator + groupDir + File.separator + resource + ".rst")) {
-                                writer.write(rst);
-                            } catch (IOException ioe) {
-                                ioe.printStackTrace();
-                            }
-                        }
-                    }
-                }
-
-                // Output group index
-                try (FileWriter writer = new FileWriter(outputDirectory + File.separator + groupDir + File.separator + "index.rst")) {
-                    writer.write(generateGroupIndex(group, resources));
-                } catch (IOException ioe) {
-                    ioe.printStackTrace();
-                }
-
-                groupDirs.add(groupDir);
-            }
-        }
-
-        // Output provider index
-        StringBuilder providerIndex = new StringBuilder();
-        PackageDoc rootPackageDoc = root.packageNamed(providerPackage);
-
-        providerIndex.append(trimLeadingSpace(rootPackageDoc.commentText()).replace("{@literal @}", "@"));
-        providerIndex.append("\n\nResources\n");
-        providerIndex.append("+++++++++\n");
-        providerIndex.append("\n\n");
-        providerIndex.append(".. toctree::\n");
-        providerIndex.append("    :maxdepth: 1\n\n");
-
-        Collections.sort(groupDirs);
-
-        for (String groupDir : groupDirs) {
-            providerIndex.append("    ");
-            providerIndex.append(groupDir);
-            providerIndex.append("/index\n");
-        }
-
-        try (FileWriter writer = new FileWriter(outputDirectory + File.separator + "index.rst")) {
-            writer.write(providerIndex.toString());
-        } catch (IOException ioe) {
-            ioe.printStackTrace();
-        }
+    public static boolean start(RootDoc root) {
+        DocConfig config = DocConfig.parse(root.options(), root);
 
-        return true;
+        return config != null && ENGINE.run(root, config, root);
     }
 
     public static int optionLength(String option) {
-        if (option.equals("-d")) {
-            return 2;
-        }
-
-        return 0;
-    }
-
-    private static String generateGroupIndex(String groupName, Map<String, String> resources) {
-        StringBuilder sb = new StringBuilder();
-
-        /*
-        Autoscaling Groups
-        ==================
-
-        .. toctree::
-
-            auto-scaling-group
-            launch-configuration
-        */
-
-        sb.append(groupName).append("\n");
-        sb.append(ResourceDocGenerator.repeat("=", groupName.length()));
-        sb.append("\n\n");
-        sb.append(".. toctree::");
-        sb.append("\n");
-        sb.append("    :maxdepth: 1");
-        sb.append("\n\n");
-
-        List<String> keys = new ArrayList<>(resources.keySet());
-        Collections.sort(keys);
-
-        for (String resource : keys) {
-            if (resource != null && !resource.endsWith(FINDER_SUFFIX)) {
-                sb.append("    ").append(resource);
-                sb.append("\n");
-            }
-        }
-
-        return sb.toString();
+        return DocConfig.optionLength(option);
     }
 
-    private static String trimLeadingSpace(String comment) {
-        StringBuilder sb = new StringBuilder();
-
-        String[] parts = comment.split("\n");
-        if (parts.length > 1) {
-            for (int i = 0; i < parts.length; i++) {
-                sb.append(parts[i].replaceFirst(" ", ""));
-                sb.append("\n");
-            }
-        }
-
-        return sb.toString();
-
+    public static boolean validOptions(String[][] options, DocErrorReporter reporter) {
+        return DocConfig.parse(options, reporter) != null;
     }
 
 }
@@ -0,0 +1,481 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import com.sun.javadoc.DocErrorReporter;
+
+/**
+ * Renders a static HTML preview of the reference documentation from a {@link ProviderDoc} in a single pass, for
+ * checking documentation changes without a full Sphinx build. Only the reStructuredText used in resource comments
+ * (paragraphs, section titles, code blocks, literals and links) is translated; Sphinx stays the production output.
+ */
+public class HtmlRenderer {
+
+    private static final Pattern LITERAL = Pattern.compile("``(.+?)``");
+    private static final Pattern EXTERNAL_LINK = Pattern.compile("`([^`<]+?)\\s*&lt;(\\S+?)&gt;`_");
+    private static final Pattern ROLE = Pattern.compile(":\\w+:`([^`<]+?)(?:\\s*&lt;\\S+?&gt;)?`");
+    private static final Pattern SECTION_UNDERLINE = Pattern.compile("^([-=+~^])\\1+$");
+
+    private static final String STYLE = "body{font-family:sans-serif;max-width:60em;margin:2em auto;padding:0 1em;color:#222}"
+        + "table{border-collapse:collapse;width:100%}th,td{border:1px solid #ccc;padding:.4em;vertical-align:top;text-align:left}"
+        + "td:first-child{width:30%}pre{background:#f5f5f5;padding:.6em;overflow:auto}code{background:#f5f5f5}"
+        + ".attribute{font-family:monospace;font-weight:bold}.label{font-size:.8em;padding:0 .3em;margin-left:.3em;"
+        + "border-radius:3px;background:#e0e7ef}.subresource{margin:.5em 0 0 1em;padding-left:.8em;border-left:3px solid #e0e7ef}"
+        + "nav{margin-bottom:1em}\n";
+
+    private final DocErrorReporter reporter;
+    private ReferenceGraph references;
+    private boolean indexes = true;
+
+    public HtmlRenderer() {
+        this(new ConsoleReporter());
+    }
+
+    public HtmlRenderer(DocErrorReporter reporter) {
+        this.reporter = reporter;
+    }
+
+    /**
+     * If set, resource pages end with a "Referenced by" section listing the resources that link to or embed them.
+     */
+    public void setReferences(ReferenceGraph references) {
+        this.references = references;
+    }
+
+    /**
+     * Whether {@link #write(ProviderDoc, DocOutput, Set)} also writes the group and provider indexes. Shards leave
+     * them to {@link GyroDocMerge}, which writes them with {@link #writeIndexes(ProviderDoc, DocOutput)}.
+     */
+    public void setIndexes(boolean indexes) {
+        this.indexes = indexes;
+    }
+
+    /**
+     * @param selected If not {@code null}, only these pages are written, along with the index of their groups. The
+     *                 provider index is only rewritten if a new group directory had to be created.
+     * @return {@code false} if any of the files couldn't be written.
+     */
+    public boolean write(ProviderDoc provider, DocOutput output, Set<ResourceDoc> selected) {
+        Map<String, Map<String, ResourceDoc>> docs = groupResources(provider);
+        FinderPairs pairs = FinderPairs.build(provider);
+        boolean newGroupDir = false;
+        boolean written = true;
+
+        for (Map.Entry<String, Map<String, ResourceDoc>> group : docs.entrySet()) {
+            String groupDir = RstRenderer.groupDir(group.getKey());
+            Map<String, ResourceDoc> resources = group.getValue();
+
+            if (selected != null && resources.values().stream().noneMatch(selected::contains)) {
+                continue;
+            }
+
+            newGroupDir |= !output.hasDirectory(groupDir);
+
+            for (ResourceDoc resource : resources.values()) {
+                if (selected == null || selected.contains(resource)) {
+                    written &= writeFile(output, groupDir + "/" + resource.getName() + ".html", render(provider, resource, pairs));
+                }
+            }
+
+            if (indexes) {
+                written &= writeFile(output, groupDir + "/index.html", generateGroupIndex(provider, group.getKey(), resources));
+            }
+        }
+
+        if (indexes && (selected == null || newGroupDir)) {
+            written &= writeProviderIndex(provider, output, docs.keySet());
+        }
+
+        return written;
+    }
+
+    /**
+     * Writes the index of every group and the provider index, without any of the resource pages.
+     */
+    public boolean writeIndexes(ProviderDoc provider, DocOutput output) {
+        Map<String, Map<String, ResourceDoc>> docs = groupResources(provider);
+        boolean written = true;
+
+        for (Map.Entry<String, Map<String, ResourceDoc>> group : docs.entrySet()) {
+            String groupDir = RstRenderer.groupDir(group.getKey());
+
+            written &= writeFile(output, groupDir + "/index.html", generateGroupIndex(provider, group.getKey(), group.getValue()));
+        }
+
+        written &= writeProviderIndex(provider, output, docs.keySet());
+
+        return written;
+    }
+
+    // group -> "resource -> doc"
+    private Map<String, Map<String, ResourceDoc>> groupResources(ProviderDoc provider) {
+        Map<String, Map<String, ResourceDoc>> docs = new TreeMap<>();
+
+        for (ResourceDoc resource : provider.getResources()) {
+            if (resource.getGroupName() != null && !resource.isSubresource()) {
+                docs.computeIfAbsent(resource.getGroupName(), m -> new TreeMap<>()).put(resource.getName(), resource);
+            }
+        }
+
+        return docs;
+    }
+
+    private boolean writeProviderIndex(ProviderDoc provider, DocOutput output, Set<String> groups) {
+        return writeFile(output, "style.css", STYLE) & writeFile(output, "index.html", generateProviderIndex(provider, groups));
+    }
+
+    private boolean writeFile(DocOutput output, String path, String content) {
+        try {
+            output.write(path, content);
+            return true;
+        } catch (IOException ioe) {
+            reporter.printError(String.format("Unable to write %s: %s", path, ioe.getMessage()));
+            return false;
+        }
+    }
+
+    private String generateProviderIndex(ProviderDoc provider, Set<String> groups) {
+        StringBuilder sb = new StringBuilder();
+        String title = providerTitle(provider);
+
+        startPage(sb, title, "");
+        sb.append(comment(provider.getComment().replace("{@literal @}", "@")));
+        sb.append("<h2>Resources</h2>\n<ul>\n");
+
+        for (String group : groups) {
+            sb.append("<li><a href=\"").append(RstRenderer.groupDir(group)).append("/index.html\">")
+                .append(escape(group)).append("</a></li>\n");
+        }
+
+        sb.append("</ul>\n");
+        endPage(sb);
+
+        return sb.toString();
+    }
+
+    private String generateGroupIndex(ProviderDoc provider, String group, Map<String, ResourceDoc> resources) {
+        StringBuilder sb = new StringBuilder();
+
+        startPage(sb, group, "../");
+        sb.append("<nav><a href=\"../index.html\">").append(escape(providerTitle(provider))).append("</a></nav>\n");
+        sb.append("<h1>").append(escape(group)).append("</h1>\n<ul>\n");
+
+        for (ResourceDoc resource : resources.values()) {
+            if (!resource.isFinder()) {
+                sb.append("<li><a href=\"").append(resource.getName()).append(".html\">")
+                    .append(escape(resourceName(resource, resource.getName()))).append("</a></li>\n");
+            }
+        }
+
+        sb.append("</ul>\n");
+        endPage(sb);
+
+        return sb.toString();
+    }
+
+    private String render(ProviderDoc provider, ResourceDoc resource, FinderPairs pairs) {
+        StringBuilder sb = new StringBuilder();
+        String title = resourceName(resource, resource.getName());
+
+        startPage(sb, title, "../");
+        sb.append("<nav><a href=\"../index.html\">").append(escape(providerTitle(provider))).append("</a> &rsaquo; ")
+            .append("<a href=\"index.html\">").append(escape(resource.getGroupName())).append("</a>");
+
+        FinderPairs.Pair pair = pairs.get(resource);
+
+        if (pair != null) {
+            if (resource.isFinder()) {
+                sb.append(" &middot; <a href=\"").append(pair.getResource().getName()).append(".html\">Back to resource</a>");
+            } else {
+                sb.append(" &middot; <a href=\"").append(pair.getFinder().getName()).append(".html\">Query</a>");
+            }
+        }
+
+        sb.append("</nav>\n");
+        sb.append("<h1>").append(escape(title)).append("</h1>\n");
+        sb.append(comment(ResourceDocGenerator.trim(resource.getComment())));
+
+        if (resource.isDocumented()) {
+            List<AttributeDoc> attributes = new ArrayList<>();
+            List<AttributeDoc> outputs = new ArrayList<>();
+
+            for (AttributeDoc attribute : resource.getAttributes()) {
+                (attribute.isOutput() ? outputs : attributes).add(attribute);
+            }
+
+            sb.append("<h2 id=\"attributes\">Attributes</h2>\n");
+            writeTable(resource, attributes, false, sb);
+
+            if (!outputs.isEmpty()) {
+                sb.append("<h2 id=\"outputs\">Outputs</h2>\n");
+                writeTable(resource, outputs, true, sb);
+            }
+        }
+
+        if (references != null && !resource.isFinder()) {
+            writeReferencedBy(resource, sb);
+        }
+
+        endPage(sb);
+
+        return sb.toString();
+    }
+
+    private void writeReferencedBy(ResourceDoc resource, StringBuilder sb) {
+        List<ReferenceGraph.Reference> referencedBy = references.getReferencedBy(resource);
+
+        if (referencedBy.isEmpty()) {
+            return;
+        }
+
+        sb.append("<h2 id=\"referenced-by\">Referenced by</h2>\n<ul>\n");
+
+        ReferenceGraph.Node previous = null;
+
+        for (ReferenceGraph.Reference reference : referencedBy) {
+            ReferenceGraph.Node source = reference.getSource();
+
+            if (source != previous) {
+                if (previous != null) {
+                    sb.append(")</li>\n");
+                }
+
+                if (source.getGroup() != null) {
+                    sb.append("<li><a href=\"../").append(RstRenderer.groupDir(source.getGroup())).append("/").append(source.getName())
+                        .append(".html\">").append(escape(source.getTitle())).append("</a> (");
+                } else {
+                    sb.append("<li>").append(escape(source.getTitle())).append(" (");
+                }
+                previous = source;
+            } else {
+                sb.append(", ");
+            }
+
+            if (source.getGroup() != null) {
+                sb.append("<a href=\"../").append(RstRenderer.groupDir(source.getGroup())).append("/").append(source.getName())
+                    .append(".html#").append(escape(reference.getPath())).append("\"><code>").append(escape(reference.getPath()))
+                    .append("</code></a>");
+            } else {
+                sb.append("<code>").append(escape(reference.getPath())).append("</code>");
+            }
+        }
+
+        sb.append(")</li>\n</ul>\n");
+    }
+
+    // Like the RST tables, nested attributes are only listed in the table of their kind.
+    private void writeTable(ResourceDoc resource, List<AttributeDoc> attributes, boolean outputs, StringBuilder sb) {
+        sb.append("<table>\n<tr><th>Attribute</th><th>Description</th></tr>\n");
+
+        for (AttributeDoc attribute : attributes) {
+            sb.append("<tr><td>");
+            writeFieldName(attribute, attribute.getName(), sb);
+            sb.append("</td><td>");
+            writeDescription(resource, attribute, attribute.getName(), outputs, sb);
+            sb.append("</td></tr>\n");
+        }
+
+        sb.append("</table>\n");
+    }
+
+    private void writeFieldName(AttributeDoc attribute, String path, StringBuilder sb) {
+        sb.append("<a class=\"attribute\" id=\"").append(escape(path)).append("\" href=\"#").append(escape(path)).append("\">")
+            .append(escape(attribute.getName())).append("</a>");
+
+        if (attribute.getCollectionType() != null) {
+            sb.append("<span class=\"label\">").append(escape(attribute.getCollectionType())).append("</span>");
+        }
+
+        if (attribute.getResourceType() != null) {
+            sb.append("<span class=\"label\">").append(attribute.getResourceType()).append("</span>");
+        }
+    }
+
+    private void writeDescription(ResourceDoc resource, AttributeDoc attribute, String path, boolean outputs, StringBuilder sb) {
+        if (attribute.getLinkType() != null) {
+            String linkName = escape(resourceName(resource, attribute.getLinkType()));
+
+            // Resources without a group don't have a page to link to.
+            if (attribute.getLinkGroup() != null) {
+                sb.append("<p><a href=\"../").append(RstRenderer.groupDir(attribute.getLinkGroup())).append("/")
+                    .append(attribute.getLinkType()).append(".html\">").append(linkName).append("</a> resource</p>\n");
+            } else {
+                sb.append("<p>").append(linkName).append(" resource</p>\n");
+            }
+        }
+
+        sb.append(comment(attribute.getComment()));
+
+        if (attribute.getResourceType() == AttributeDoc.ResourceType.SUBRESOURCE) {
+            for (AttributeDoc child : attribute.getAttributes()) {
+                if (child.isOutput() != outputs) {
+                    continue;
+                }
+
+                String childPath = path + "." + child.getName();
+
+                sb.append("<div class=\"subresource\">");
+                writeFieldName(child, childPath, sb);
+                writeDescription(resource, child, childPath, outputs, sb);
+                sb.append("</div>\n");
+            }
+        }
+    }
+
+    private String providerTitle(ProviderDoc provider) {
+        String comment = provider.getComment() != null ? provider.getComment().trim() : "";
+
+        return !comment.isEmpty() ? comment.split("\n")[0].trim() : provider.getProviderPackage();
+    }
+
+    private String resourceName(ResourceDoc resource, String name) {
+        return String.format("%s::%s", resource.getNamespace(), name.replace(GyroDoclet.FINDER_SUFFIX, ""));
+    }
+
+    private void startPage(StringBuilder sb, String title, String root) {
+        sb.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n");
+        sb.append("<title>").append(escape(title)).append("</title>\n");
+        sb.append("<link rel=\"stylesheet\" href=\"").append(root).append("style.css\">\n");
+        sb.append("</head>\n<body>\n");
+    }
+
+    private void endPage(StringBuilder sb) {
+        sb.append("</body>\n</html>\n");
+    }
+
+    // Translates the small subset of reStructuredText used in comments, line by line.
+    private String comment(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        List<String> paragraph = new ArrayList<>();
+        String[] lines = text.split("\n");
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            String trimmed = line.trim();
+
+            if (trimmed.startsWith(".. code-block::")) {
+                writeParagraph(paragraph, sb);
+
+                int indent = line.indexOf('.');
+                List<String> block = new ArrayList<>();
+
+                for (i++; i < lines.length; i++) {
+                    if (!lines[i].trim().isEmpty() && indentation(lines[i]) <= indent) {
+                        i--;
+                        break;
+                    }
+
+                    block.add(lines[i]);
+                }
+
+                int blockIndent = block.stream()
+                    .filter(l -> !l.trim().isEmpty())
+                    .mapToInt(HtmlRenderer::indentation)
+                    .min()
+                    .orElse(0);
+
+                sb.append("<pre><code>");
+
+                for (String blockLine : trimBlank(block)) {
+                    sb.append(escape(blockLine.length() > blockIndent ? blockLine.substring(blockIndent) : "")).append("\n");
+                }
+
+                sb.append("</code></pre>\n");
+
+            } else if (!trimmed.isEmpty()
+                && i + 1 < lines.length
+                && SECTION_UNDERLINE.matcher(lines[i + 1].trim()).matches()
+                && lines[i + 1].trim().length() >= trimmed.length()) {
+
+                writeParagraph(paragraph, sb);
+                sb.append("<h3>").append(inline(trimmed)).append("</h3>\n");
+                i++;
+
+            } else if (trimmed.isEmpty() || trimmed.startsWith(".. ")) {
+                writeParagraph(paragraph, sb);
+
+            } else {
+                paragraph.add(trimmed);
+            }
+        }
+
+        writeParagraph(paragraph, sb);
+
+        return sb.toString();
+    }
+
+    private void writeParagraph(List<String> paragraph, StringBuilder sb) {
+        if (!paragraph.isEmpty()) {
+            sb.append("<p>").append(inline(String.join(" ", paragraph))).append("</p>\n");
+            paragraph.clear();
+        }
+    }
+
+    private String inline(String text) {
+        String html = escape(text);
+
+        html = LITERAL.matcher(html).replaceAll("<code>$1</code>");
+        html = EXTERNAL_LINK.matcher(html).replaceAll("<a href=\"$2\">$1</a>");
+
+        return ROLE.matcher(html).replaceAll("$1");
+    }
+
+    private static List<String> trimBlank(List<String> lines) {
+        int start = 0;
+        int end = lines.size();
+
+        while (start < end && lines.get(start).trim().isEmpty()) {
+            start++;
+        }
+
+        while (end > start && lines.get(end - 1).trim().isEmpty()) {
+            end--;
+        }
+
+        return lines.subList(start, end);
+    }
+
+    private static int indentation(String line) {
+        int indent = 0;
+
+        while (indent < line.length() && Character.isWhitespace(line.charAt(indent))) {
+            indent++;
+        }
+
+        return indent;
+    }
+
+    private static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a Sphinx intersphinx inventory ({@code objects.inv}, version 2) for the pages and link targets the doclet
+ * generates, so that other projects can link to the reference without waiting for the Sphinx build.
+ */
+public class InventoryWriter {
+
+    private static final Pattern NON_ID_CHARS = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern NON_ID_AT_ENDS = Pattern.compile("^[-0-9]+|-+$");
+    private static final Pattern WHITE_SPACES = Pattern.compile("\\s+");
+
+    private String project = "";
+    private String version = "";
+    private String prefix = "";
+
+    public void setProject(String project) {
+        this.project = project;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    /**
+     * @param prefix Path of the provider documentation relative to the root of the Sphinx site (i.e. {@code aws/}).
+     */
+    public void setPrefix(String prefix) {
+        this.prefix = prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+
+    public void write(ProviderDoc provider, File file) throws IOException {
+        List<String> entries = new ArrayList<>();
+
+        entries.add(docEntry("index", providerTitle(provider)));
+
+        // group -> "resource -> doc"
+        Map<String, Map<String, ResourceDoc>> docs = new HashMap<>();
+        FinderPairs pairs = FinderPairs.build(provider);
+
+        for (ResourceDoc resource : provider.getResources()) {
+            if (resource.getGroupName() != null) {
+                docs.computeIfAbsent(resource.getGroupName(), m -> new HashMap<>()).put(resource.getName(), resource);
+            }
+        }
+
+        for (Map.Entry<String, Map<String, ResourceDoc>> entry : docs.entrySet()) {
+            String group = entry.getKey();
+            String groupDir = RstRenderer.groupDir(group);
+            Map<String, ResourceDoc> resources = entry.getValue();
+
+            entries.add(docEntry(groupDir + "/index", group));
+
+            for (ResourceDoc resource : resources.values()) {
+                String name = resource.getName();
+
+                if (resource.isFinder() || resource.isSubresource()) {
+                    continue;
+                }
+
+                String title = String.format("%s::%s", resource.getNamespace(), name);
+                entries.add(docEntry(groupDir + "/" + name, title));
+
+                FinderPairs.Pair pair = pairs.get(group, name);
+
+                // Link targets are only written on pages that have a finder.
+                if (pair != null) {
+                    String finderName = pair.getFinder().getName();
+
+                    entries.add(docEntry(groupDir + "/" + finderName, title));
+                    entries.add(labelEntry(pair.getResourceLink(), groupDir + "/" + name));
+                    entries.add(labelEntry(pair.getQueryLink(), groupDir + "/" + finderName));
+                }
+            }
+        }
+
+        entries.sort(null);
+
+        StringBuilder sb = new StringBuilder();
+        for (String entry : entries) {
+            sb.append(entry).append("\n");
+        }
+
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(("# Sphinx inventory version 2\n"
+                + "# Project: " + project + "\n"
+                + "# Version: " + version + "\n"
+                + "# The remainder of this file is compressed using zlib.\n").getBytes(StandardCharsets.UTF_8));
+
+            DeflaterOutputStream deflater = new DeflaterOutputStream(out);
+            deflater.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            deflater.finish();
+        }
+    }
+
+    // The prefix is part of the document name, as it is in the inventory Sphinx writes for the whole site.
+    private String docEntry(String docName, String title) {
+        return String.format("%s%s std:doc -1 %s%s.html %s", prefix, docName, prefix, docName, title);
+    }
+
+    // The labels aren't followed by a section title so Sphinx registers them as anonymous labels, without a
+    // display name and with the lowest priority.
+    private String labelEntry(String label, String docName) {
+        return String.format("%s std:label -1 %s%s.html#%s -", normalizeName(label), prefix, docName, makeId(label));
+    }
+
+    private String providerTitle(ProviderDoc provider) {
+        if (provider.getComment() != null) {
+            for (String line : provider.getComment().split("\n")) {
+                if (!line.trim().isEmpty()) {
+                    return line.trim();
+                }
+            }
+        }
+
+        return provider.getProviderPackage();
+    }
+
+    // Same as Sphinx's fully_normalize_name.
+    static String normalizeName(String name) {
+        return WHITE_SPACES.matcher(name.trim()).replaceAll(" ").toLowerCase();
+    }
+
+    // Same as docutils' make_id for ASCII names.
+    static String makeId(String name) {
+        String id = NON_ID_CHARS.matcher(normalizeName(name)).replaceAll("-");
+        return NON_ID_AT_ENDS.matcher(id).replaceAll("");
+    }
+}
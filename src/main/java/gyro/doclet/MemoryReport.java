@@ -0,0 +1,441 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package gyro.doclet;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Heap usage of a doclet run, for sizing the javadoc heap ({@code -J-Xmx}) and catching memory regressions in
+ * individual resources. Records:
+ *
+ * <ul>
+ * <li>bytes allocated by each phase of the run,</li>
+ * <li>bytes allocated extracting each resource, and the estimated size of its model, which is retained until the
+ * run ends,</li>
+ * <li>bytes allocated rendering each page, and its size,</li>
+ * <li>the peak usage of each heap memory pool since the JVM started, which includes the javadoc parse,</li>
+ * <li>the peak heap usage while the doclet ran.</li>
+ * </ul>
+ *
+ * Allocations are read from the thread allocation counters of HotSpot, and only cover the thread running the doclet,
+ * not the example validation threads. The peaks of the memory pools are never reset, so that concurrent runs in the
+ * same JVM don't affect each other. The peak of the doclet run is the highest heap usage seen before a garbage
+ * collection or at the end of a phase. A disabled report records nothing.
+ */
+public class MemoryReport {
+
+    private static final String NO_GROUP = "";
+
+    private final boolean enabled;
+    private final com.sun.management.ThreadMXBean threads;
+    private final List<Phase> phases = new ArrayList<>();
+    private final Map<String, Group> groups = new TreeMap<>();
+    private final Map<String, String> groupDirs = new HashMap<>();
+    private final Set<String> heapPools;
+    private final AtomicLong runPeak = new AtomicLong();
+    private final List<NotificationEmitter> collectors = new ArrayList<>();
+    private final NotificationListener collectionListener = (notification, handback) -> {
+        if (notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(
+                (CompositeData) notification.getUserData());
+
+            updateRunPeak(info.getGcInfo().getMemoryUsageBeforeGc());
+        }
+    };
+    private Phase phase;
+    private long lastWrite;
+
+    public MemoryReport(boolean enabled) {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+        if (enabled
+            && threadBean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+
+            this.threads = (com.sun.management.ThreadMXBean) threadBean;
+            this.threads.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            this.threads = null;
+        }
+
+        this.enabled = enabled;
+        this.heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(p -> p.getType() == MemoryType.HEAP)
+            .map(MemoryPoolMXBean::getName)
+            .collect(Collectors.toSet());
+
+        if (enabled) {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (collector instanceof NotificationEmitter) {
+                    ((NotificationEmitter) collector).addNotificationListener(collectionListener, null, null);
+                    collectors.add((NotificationEmitter) collector);
+                }
+            }
+
+            sampleHeap();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ends the current phase, if any, and starts a new one.
+     */
+    public void phase(String name) {
+        if (!enabled) {
+            return;
+        }
+
+        long allocated = allocated();
+
+        sampleHeap();
+        endPhase(allocated);
+        phase = new Phase(name, allocated);
+        phases.add(phase);
+    }
+
+    /**
+     * Total bytes allocated by the current thread so far, or {@code -1} if the JVM doesn't count them.
+     */
+    public long allocated() {
+        return threads != null ? threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    /**
+     * Records the extraction of the given resource, which started when {@link #allocated()} returned {@code before}.
+     */
+    public void extracted(ResourceDoc resource, long before) {
+        if (!enabled) {
+            return;
+        }
+
+        Group group = group(resource.getGroupName());
+
+        if (resource.getGroupName() != null) {
+            groupDirs.put(RstRenderer.groupDir(resource.getGroupName()), resource.getGroupName());
+        }
+
+        group.resources.add(new Entry(resource.getName(), since(before), estimateSize(resource)));
+    }
+
+    /**
+     * Wraps the output so that each written page is recorded along with the bytes allocated since the previous one,
+     * which is what rendering it took. Pages rendered together, like a resource and its finder, are all counted on
+     * the first one written.
+     */
+    public DocOutput wrap(DocOutput output) {
+        if (!enabled) {
+            return output;
+        }
+
+        lastWrite = allocated();
+
+        return new DocOutput() {
+
+            @Override
+            public void write(String path, String content) throws IOException {
+                long allocated = since(lastWrite);
+                int slash = path.indexOf('/');
+                String group = slash > 0 ? groupDirs.get(path.substring(0, slash)) : null;
+
+                group(group).pages.add(new Entry(path, allocated, content.getBytes(StandardCharsets.UTF_8).length));
+                output.write(path, content);
+                lastWrite = allocated();
+            }
+
+            @Override
+            public boolean hasDirectory(String path) {
+                return output.hasDirectory(path);
+            }
+
+            @Override
+            public void commit() throws IOException {
+                output.commit();
+            }
+
+            @Override
+            public void close() throws IOException {
+                output.close();
+            }
+        };
+    }
+
+    /**
+     * Ends the last phase and stops watching the garbage collections. Must be called once the run is over, even if it
+     * failed.
+     */
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+
+        for (NotificationEmitter collector : collectors) {
+            try {
+                collector.removeNotificationListener(collectionListener);
+            } catch (javax.management.ListenerNotFoundException error) {
+                // Already removed.
+            }
+        }
+
+        collectors.clear();
+        sampleHeap();
+        endPhase(allocated());
+        phase = null;
+    }
+
+    public void write(File file) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+    }
+
+    String toJson() {
+        StringBuilder sb = new StringBuilder();
+        long peak = 0;
+
+        sb.append("{\n  \"maxHeap\": ").append(Runtime.getRuntime().maxMemory());
+        sb.append(",\n  \"pools\": [");
+
+        String separator = "\n";
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                long used = pool.getPeakUsage().getUsed();
+
+                peak += used;
+                sb.append(separator)
+                    .append("    {\"name\": ").append(jsonString(pool.getName()))
+                    .append(", \"peak\": ").append(used)
+                    .append("}");
+                separator = ",\n";
+            }
+        }
+
+        // Pools peak at different times, so this is an upper bound.
+        sb.append("\n  ],\n  \"peakHeap\": ").append(peak);
+        sb.append(",\n  \"runPeakHeap\": ").append(runPeak.get());
+        sb.append(",\n  \"phases\": [");
+
+        separator = "\n";
+        for (Phase p : phases) {
+            sb.append(separator)
+                .append("    {\"name\": ").append(jsonString(p.name))
+                .append(", \"allocated\": ").append(p.allocated)
+                .append(", \"heapUsed\": ").append(p.heapUsed)
+                .append("}");
+            separator = ",\n";
+        }
+
+        sb.append("\n  ],\n  \"groups\": [");
+
+        separator = "\n";
+        for (Map.Entry<String, Group> entry : groups.entrySet()) {
+            Group group = entry.getValue();
+
+            sb.append(separator)
+                .append("    {\"name\": ").append(entry.getKey().equals(NO_GROUP) ? "null" : jsonString(entry.getKey()))
+                .append(", \"extractAllocated\": ").append(sum(group.resources, true))
+                .append(", \"modelSize\": ").append(sum(group.resources, false))
+                .append(", \"renderAllocated\": ").append(sum(group.pages, true))
+                .append(", \"pageSize\": ").append(sum(group.pages, false))
+                .append(",\n      \"resources\": [");
+            appendEntries(sb, group.resources, "modelSize");
+            sb.append("],\n      \"pages\": [");
+            appendEntries(sb, group.pages, "size");
+            sb.append("]}");
+            separator = ",\n";
+        }
+
+        sb.append("\n  ]\n}\n");
+
+        return sb.toString();
+    }
+
+    private void appendEntries(StringBuilder sb, List<Entry> entries, String sizeName) {
+        String separator = "\n";
+        for (Entry entry : entries) {
+            sb.append(separator)
+                .append("        {\"name\": ").append(jsonString(entry.name))
+                .append(", \"allocated\": ").append(entry.allocated)
+                .append(", \"").append(sizeName).append("\": ").append(entry.size)
+                .append("}");
+            separator = ",\n";
+        }
+
+        if (!entries.isEmpty()) {
+            sb.append("\n      ");
+        }
+    }
+
+    private long sum(List<Entry> entries, boolean allocated) {
+        long sum = 0;
+
+        for (Entry entry : entries) {
+            long value = allocated ? entry.allocated : entry.size;
+
+            if (value < 0) {
+                return -1;
+            }
+
+            sum += value;
+        }
+
+        return sum;
+    }
+
+    private void endPhase(long allocated) {
+        if (phase != null) {
+            phase.allocated = allocated >= 0 ? allocated - phase.start : -1;
+            phase.heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+    }
+
+    private void sampleHeap() {
+        runPeak.accumulateAndGet(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max);
+    }
+
+    // Called on the notification thread.
+    private void updateRunPeak(Map<String, MemoryUsage> usages) {
+        long used = 0;
+
+        for (Map.Entry<String, MemoryUsage> usage : usages.entrySet()) {
+            if (heapPools.contains(usage.getKey())) {
+                used += usage.getValue().getUsed();
+            }
+        }
+
+        runPeak.accumulateAndGet(used, Math::max);
+    }
+
+    private long since(long before) {
+        return before >= 0 ? allocated() - before : -1;
+    }
+
+    private Group group(String name) {
+        return groups.computeIfAbsent(name != null ? name : NO_GROUP, n -> new Group());
+    }
+
+    // Estimated with compressed oops and the char arrays of Java 8 strings. Strings shared between models are
+    // counted once per use, so this leans high.
+    static long estimateSize(ResourceDoc resource) {
+        long size = 40
+            + estimateSize(resource.getClassName())
+            + estimateSize(resource.getGroupName())
+            + estimateSize(resource.getName())
+            + estimateSize(resource.getNamespace())
+            + estimateSize(resource.getComment());
+
+        return size + estimateSize(resource.getAttributes());
+    }
+
+    private static long estimateSize(List<AttributeDoc> attributes) {
+        long size = 24 + 16 + 4L * attributes.size();
+
+        for (AttributeDoc attribute : attributes) {
+            size += 48
+                + estimateSize(attribute.getName())
+                + estimateSize(attribute.getCollectionType())
+                + estimateSize(attribute.getLinkGroup())
+                + estimateSize(attribute.getLinkType())
+                + estimateSize(attribute.getLinkClass())
+                + estimateSize(attribute.getSubresourceGroup())
+                + estimateSize(attribute.getSubresourceType())
+                + estimateSize(attribute.getComment())
+                + estimateSize(attribute.getAttributes());
+        }
+
+        return size;
+    }
+
+    private static long estimateSize(String s) {
+        return s != null ? 24 + ((16 + 2L * s.length() + 7) & ~7) : 0;
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.append('"').toString();
+    }
+
+    private static class Phase {
+
+        private final String name;
+        private final long start;
+        private long allocated;
+        private long heapUsed;
+
+        Phase(String name, long start) {
+            this.name = name;
+            this.start = start;
+        }
+    }
+
+    private static class Group {
+
+        private final List<Entry> resources = new ArrayList<>();
+        private final List<Entry> pages = new ArrayList<>();
+    }
+
+    private static class Entry {
+
+        private final String name;
+        private final long allocated;
+        private final long size;
+
+        Entry(String name, long allocated, long size) {
+            this.name = name;
+            this.allocated = allocated;
+            this.size = size;
+        }
+    }
+}
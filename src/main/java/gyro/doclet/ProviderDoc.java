@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Documentation model for a whole provider. The model can be persisted with {@link #write(File)} and rendered later
+ * by {@link GyroDocRenderer} without running javadoc again.
+ */
+public class ProviderDoc {
+
+    private static final int MAGIC = 0x4759444d;
+    private static final int VERSION = 3;
+
+    private String providerPackage;
+    private String comment;
+    private List<ResourceDoc> resources = new ArrayList<>();
+
+    public String getProviderPackage() {
+        return providerPackage;
+    }
+
+    public void setProviderPackage(String providerPackage) {
+        this.providerPackage = providerPackage;
+    }
+
+    /**
+     * Comment of the provider package, used as the body of the provider index.
+     */
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public List<ResourceDoc> getResources() {
+        return resources;
+    }
+
+    public void setResources(List<ResourceDoc> resources) {
+        this.resources = resources;
+    }
+
+    public void write(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+            new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(file))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, providerPackage);
+            writeString(out, comment);
+            out.writeInt(resources.size());
+
+            for (ResourceDoc resource : resources) {
+                resource.write(out);
+            }
+        }
+    }
+
+    public static ProviderDoc read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+            new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a documentation model file: " + file);
+            }
+
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException(String.format(
+                    "Unsupported documentation model version %d in %s, expected %d.", version, file, VERSION));
+            }
+
+            ProviderDoc provider = new ProviderDoc();
+            provider.setProviderPackage(readString(in));
+            provider.setComment(readString(in));
+
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                provider.getResources().add(ResourceDoc.read(in));
+            }
+
+            return provider;
+        }
+    }
+
+    // Length prefixed instead of writeUTF since comments aren't bound to 64k.
+    static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
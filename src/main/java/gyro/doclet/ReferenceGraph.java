@@ -0,0 +1,324 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Which resources refer to which, either by linking to a resource with {@code @resource} or by embedding a
+ * subresource with {@code @subresource}. Built with one walk over the extracted attributes, and used for the
+ * "Referenced by" sections and the {@code -references} export.
+ */
+public class ReferenceGraph {
+
+    private static final String QUOTED = "\"((?:[^\"\\\\]|\\\\.)*)\"";
+    private static final Pattern DOT_REFERENCE = Pattern.compile("^\\s*" + QUOTED + " -> " + QUOTED);
+    private static final Pattern JSON_REFERENCE = Pattern.compile("\\{\"source\": " + QUOTED + ", \"target\": " + QUOTED);
+    private static final Pattern ESCAPED_CHAR = Pattern.compile("\\\\(.)");
+
+    private final Map<String, Node> nodes = new TreeMap<>();
+    private final List<Reference> references = new ArrayList<>();
+
+    // Target node key -> references to it, sorted by source and attribute path.
+    private final Map<String, List<Reference>> referencedBy = new LinkedHashMap<>();
+
+    public static ReferenceGraph build(ProviderDoc provider) {
+        ReferenceGraph graph = new ReferenceGraph();
+
+        for (ResourceDoc resource : provider.getResources()) {
+            if (!resource.isFinder()) {
+                graph.node(resource.getGroupName(), resource.getName(), resource.getNamespace(), resource.isSubresource());
+            }
+        }
+
+        for (ResourceDoc resource : provider.getResources()) {
+            if (!resource.isFinder() && !resource.isSubresource()) {
+                Node source = graph.nodes.get(key(resource));
+                graph.addReferences(source, resource, resource.getAttributes(), null);
+            }
+        }
+
+        Comparator<Reference> order = Comparator.comparing((Reference r) -> r.source.getTitle()).thenComparing(r -> r.path);
+
+        graph.references.sort(order);
+
+        for (Reference reference : graph.references) {
+            graph.referencedBy.computeIfAbsent(reference.target.key, k -> new ArrayList<>()).add(reference);
+        }
+
+        return graph;
+    }
+
+    private void addReferences(Node source, ResourceDoc resource, List<AttributeDoc> attributes, String parentPath) {
+        for (AttributeDoc attribute : attributes) {
+            String path = parentPath != null ? parentPath + "." + attribute.getName() : attribute.getName();
+
+            if (attribute.getLinkType() != null) {
+                Node target = node(attribute.getLinkGroup(), attribute.getLinkType(), resource.getNamespace(), false);
+                references.add(new Reference(source, target, path, AttributeDoc.ResourceType.RESOURCE));
+            }
+
+            if (attribute.getSubresourceType() != null) {
+                Node target = node(attribute.getSubresourceGroup(), attribute.getSubresourceType(), resource.getNamespace(), true);
+                references.add(new Reference(source, target, path, AttributeDoc.ResourceType.SUBRESOURCE));
+            }
+
+            addReferences(source, resource, attribute.getAttributes(), path);
+        }
+    }
+
+    private Node node(String group, String name, String namespace, boolean subresource) {
+        return nodes.computeIfAbsent(key(group, name, subresource), k -> new Node(k, group, name, namespace, subresource));
+    }
+
+    /**
+     * Key of the given page, the same as the key of its {@link Node}.
+     */
+    static String key(ResourceDoc resource) {
+        return key(resource.getGroupName(), resource.getName(), resource.isSubresource());
+    }
+
+    // Types can't contain a slash, so a subresource never gets the key of a resource with the same type.
+    private static String key(String group, String name, boolean subresource) {
+        return subresource ? group + "/subresource/" + name : group + "/" + name;
+    }
+
+    /**
+     * @return References to the given resource, sorted by the referring resource and then the attribute path.
+     */
+    public List<Reference> getReferencedBy(ResourceDoc resource) {
+        return referencedBy.getOrDefault(key(resource), Collections.emptyList());
+    }
+
+    /**
+     * Reads the references of a graph written by {@link #write(File)}, i.e. by the previous run.
+     *
+     * @return Source node key -> target node keys, empty if the file doesn't exist.
+     */
+    public static Map<String, Set<String>> readTargets(File file) throws IOException {
+        Map<String, Set<String>> targets = new HashMap<>();
+
+        if (!file.exists()) {
+            return targets;
+        }
+
+        Pattern reference = file.getName().endsWith(".dot") ? DOT_REFERENCE : JSON_REFERENCE;
+
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            Matcher matcher = reference.matcher(line);
+
+            if (matcher.find()) {
+                targets.computeIfAbsent(unescape(matcher.group(1)), k -> new HashSet<>()).add(unescape(matcher.group(2)));
+            }
+        }
+
+        return targets;
+    }
+
+    /**
+     * Writes the graph in DOT format if the file name ends with {@code .dot}, or JSON otherwise.
+     */
+    public void write(File file) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(file.getName().endsWith(".dot") ? toDot() : toJson());
+        }
+    }
+
+    String toDot() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("digraph references {\n");
+
+        for (Node node : nodes.values()) {
+            sb.append("    ").append(dotId(node.key)).append(" [label=").append(dotId(node.getTitle()));
+
+            if (node.subresource) {
+                sb.append(", shape=box");
+            }
+
+            sb.append("];\n");
+        }
+
+        for (Reference reference : references) {
+            sb.append("    ").append(dotId(reference.source.key)).append(" -> ").append(dotId(reference.target.key))
+                .append(" [label=").append(dotId(reference.path));
+
+            if (reference.type == AttributeDoc.ResourceType.SUBRESOURCE) {
+                sb.append(", style=dashed");
+            }
+
+            sb.append("];\n");
+        }
+
+        sb.append("}\n");
+
+        return sb.toString();
+    }
+
+    String toJson() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("{\n  \"nodes\": [");
+
+        String separator = "\n";
+        for (Node node : nodes.values()) {
+            sb.append(separator)
+                .append("    {\"id\": ").append(jsonString(node.key))
+                .append(", \"group\": ").append(jsonString(node.group))
+                .append(", \"name\": ").append(jsonString(node.getTitle()))
+                .append(", \"subresource\": ").append(node.subresource)
+                .append("}");
+            separator = ",\n";
+        }
+
+        sb.append("\n  ],\n  \"references\": [");
+
+        separator = "\n";
+        for (Reference reference : references) {
+            sb.append(separator)
+                .append("    {\"source\": ").append(jsonString(reference.source.key))
+                .append(", \"target\": ").append(jsonString(reference.target.key))
+                .append(", \"attribute\": ").append(jsonString(reference.path))
+                .append(", \"type\": ").append(jsonString(reference.type.toString()))
+                .append("}");
+            separator = ",\n";
+        }
+
+        sb.append("\n  ]\n}\n");
+
+        return sb.toString();
+    }
+
+    // Undoes the quote and backslash escapes of dotId and jsonString. Keys never have control characters, the only
+    // other escapes.
+    private static String unescape(String value) {
+        return ESCAPED_CHAR.matcher(value).replaceAll("$1");
+    }
+
+    private static String dotId(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String jsonString(String value) {
+        if (value == null) {
+            return "null";
+        }
+
+        StringBuilder sb = new StringBuilder("\"");
+
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.append('"').toString();
+    }
+
+    public static class Node {
+
+        private final String key;
+        private final String group;
+        private final String name;
+        private final String namespace;
+        private final boolean subresource;
+
+        Node(String key, String group, String name, String namespace, boolean subresource) {
+            this.key = key;
+            this.group = group;
+            this.name = name;
+            this.namespace = namespace;
+            this.subresource = subresource;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isSubresource() {
+            return subresource;
+        }
+
+        public String getTitle() {
+            return String.format("%s::%s", namespace, name);
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    public static class Reference {
+
+        private final Node source;
+        private final Node target;
+        private final String path;
+        private final AttributeDoc.ResourceType type;
+
+        Reference(Node source, Node target, String path, AttributeDoc.ResourceType type) {
+            this.source = source;
+            this.target = target;
+            this.path = path;
+            this.type = type;
+        }
+
+        public Node getSource() {
+            return source;
+        }
+
+        public Node getTarget() {
+            return target;
+        }
+
+        /**
+         * Dotted path of the referring attribute, i.e. {@code block-device.ebs}.
+         */
+        public String getPath() {
+            return path;
+        }
+
+        public AttributeDoc.ResourceType getType() {
+            return type;
+        }
+    }
+}
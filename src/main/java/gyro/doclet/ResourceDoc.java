@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Documentation extracted from a resource or finder class. Everything needed to render its page is held here so
+ * that rendering doesn't need javadoc.
+ */
+public class ResourceDoc {
+
+    private String className;
+    private String groupName;
+    private String name;
+    private String namespace;
+    private String comment;
+    private boolean finder;
+    private boolean subresource;
+    private boolean documented;
+    private List<AttributeDoc> attributes = new ArrayList<>();
+
+    /**
+     * Qualified name of the documented class, used to resolve links between shards.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public String getGroupName() {
+        return groupName;
+    }
+
+    public void setGroupName(String groupName) {
+        this.groupName = groupName;
+    }
+
+    /**
+     * Resource type used as the page name, with {@link GyroDoclet#FINDER_SUFFIX} appended for finders.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public void setNamespace(String namespace) {
+        this.namespace = namespace;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public boolean isFinder() {
+        return finder;
+    }
+
+    public void setFinder(boolean finder) {
+        this.finder = finder;
+    }
+
+    public boolean isSubresource() {
+        return subresource;
+    }
+
+    public void setSubresource(boolean subresource) {
+        this.subresource = subresource;
+    }
+
+    /**
+     * Whether the class itself declares at least one documented method.
+     */
+    public boolean isDocumented() {
+        return documented;
+    }
+
+    public void setDocumented(boolean documented) {
+        this.documented = documented;
+    }
+
+    public List<AttributeDoc> getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(List<AttributeDoc> attributes) {
+        this.attributes = attributes;
+    }
+
+    void write(DataOutput out) throws IOException {
+        ProviderDoc.writeString(out, className);
+        ProviderDoc.writeString(out, groupName);
+        ProviderDoc.writeString(out, name);
+        ProviderDoc.writeString(out, namespace);
+        ProviderDoc.writeString(out, comment);
+        out.writeBoolean(finder);
+        out.writeBoolean(subresource);
+        out.writeBoolean(documented);
+        out.writeInt(attributes.size());
+
+        for (AttributeDoc attribute : attributes) {
+            attribute.write(out);
+        }
+    }
+
+    static ResourceDoc read(DataInput in) throws IOException {
+        ResourceDoc resource = new ResourceDoc();
+        resource.setClassName(ProviderDoc.readString(in));
+        resource.setGroupName(ProviderDoc.readString(in));
+        resource.setName(ProviderDoc.readString(in));
+        resource.setNamespace(ProviderDoc.readString(in));
+        resource.setComment(ProviderDoc.readString(in));
+        resource.setFinder(in.readBoolean());
+        resource.setSubresource(in.readBoolean());
+        resource.setDocumented(in.readBoolean());
+
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            resource.getAttributes().add(AttributeDoc.read(in));
+        }
+
+        return resource;
+    }
+}
@@ -20,18 +20,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import com.google.common.base.CaseFormat;
-import com.psddev.dari.util.ObjectUtils;
-import com.psddev.dari.util.StringUtils;
 import com.sun.javadoc.AnnotationDesc;
 import com.sun.javadoc.AnnotationValue;
 import com.sun.javadoc.ClassDoc;
+import com.sun.javadoc.DocErrorReporter;
 import com.sun.javadoc.MethodDoc;
 import com.sun.javadoc.PackageDoc;
 import com.sun.javadoc.RootDoc;
@@ -58,24 +58,34 @@ public class ResourceDocGenerator {
     private static final Pattern LEADING_WHITE_SPACES = Pattern.compile("^\\s+");
     private static final Pattern SEE_REF_DOC = Pattern.compile(" See `.*>`_\\.");
 
-    private RootDoc root;
-    private ClassDoc doc;
+    // Getter name -> attribute name, shared by all runs since it doesn't depend on the sources.
+    private static final Map<String, String> ATTRIBUTE_NAMES = new ConcurrentHashMap<>();
+
+    private final RootDoc root;
+    private final ClassDoc doc;
+    private final DocErrorReporter reporter;
     private String namespace;
     private String name;
     private String groupName;
     private String providerPackage;
     private boolean isSubresource = false;
+    private boolean shard;
 
     public ResourceDocGenerator(RootDoc root, ClassDoc doc, boolean isFinder) {
+        this(root, doc, isFinder, root);
+    }
+
+    public ResourceDocGenerator(RootDoc root, ClassDoc doc, boolean isFinder, DocErrorReporter reporter) {
         this.root = root;
         this.doc = doc;
+        this.reporter = reporter;
 
         PackageDoc packageDoc = doc.containingPackage();
         groupName = getDocGroupName(packageDoc);
         name = getResourceType(doc);
 
         if (name == null) {
-            name = CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_HYPHEN, doc.name().replace("Resource", ""));
+            name = getSubresourceType(doc);
             isSubresource = true;
         }
 
@@ -103,48 +113,79 @@ public class ResourceDocGenerator {
         }
     }
 
-    public String generate() {
-        if (isSubresource) {
-            return "";
-        }
-
-        StringBuilder sb = new StringBuilder();
+    /**
+     * Generator for the finder of the given resource, in the same package. The finder shares the namespace, group and
+     * type that were already resolved for the resource.
+     */
+    public ResourceDocGenerator(ResourceDocGenerator resource, ClassDoc doc) {
+        this.root = resource.root;
+        this.doc = doc;
+        this.reporter = resource.reporter;
+        this.namespace = resource.namespace;
+        this.name = resource.name + GyroDoclet.FINDER_SUFFIX;
+        this.groupName = resource.groupName;
+        this.providerPackage = resource.providerPackage;
+    }
 
-        System.out.println("Generating documentation for: " + resourceName());
+    /**
+     * In a shard, {@code @resource} classes outside of the shard are kept in the model for {@link GyroDocMerge}
+     * instead of being reported.
+     */
+    public void setShard(boolean shard) {
+        this.shard = shard;
+    }
 
-        generateHeader(sb);
+    /**
+     * Describes the page without reading any attributes, which is enough to list it in the indexes.
+     */
+    public ResourceDoc describe() {
+        ResourceDoc resource = new ResourceDoc();
+        resource.setClassName(doc.qualifiedName());
+        resource.setGroupName(groupName);
+        resource.setName(name);
+        resource.setNamespace(namespace);
+        resource.setFinder(name.endsWith(GyroDoclet.FINDER_SUFFIX));
+        resource.setSubresource(isSubresource);
 
-        if (Arrays.stream(doc.methods())
-            .anyMatch(e -> !StringUtils.isBlank(e.commentText()))) {
-            sb.append("Attributes\n");
-            sb.append(repeat("-", 10));
-            sb.append("\n\n");
+        return resource;
+    }
 
-            sb.append(".. role:: attribute\n\n");
-            sb.append(".. role:: resource-type\n\n");
-            sb.append(".. role:: collection-type\n\n");
+    public ResourceDoc extract() {
+        ResourceDoc resource = describe();
+        resource.setComment(doc.commentText());
 
-            sb.append(".. list-table::\n");
-            sb.append("    :widths: 30 70\n");
-            sb.append("    :header-rows: 1\n\n");
-            sb.append("    * - Attribute\n");
-            sb.append("      - Description\n\n");
+        if (isSubresource) {
+            return resource;
+        }
 
-            if (writeAttributes(doc, sb, 0, false)) {
-                sb.append("Outputs\n");
-                sb.append(repeat("-", 7));
-                sb.append("\n\n");
+        reporter.printNotice("Generating documentation for: " + resourceName());
 
-                sb.append(".. list-table::\n");
-                sb.append("    :widths: 30 70\n");
-                sb.append("    :header-rows: 1\n\n");
-                sb.append("    * - Attribute\n");
-                sb.append("      - Description\n\n");
+        resource.setDocumented(Arrays.stream(doc.methods())
+            .anyMatch(e -> !isBlank(e.commentText())));
 
-                generateOutputs(doc, sb, 0);
-            }
+        if (resource.isDocumented()) {
+            resource.setAttributes(readAttributes(doc));
         }
-        return sb.toString();
+
+        return resource;
+    }
+
+    public String generate() {
+        return new RstRenderer().render(extract());
+    }
+
+    /**
+     * Qualified names of every class the rendered page depends on: the class itself, its superclasses, the
+     * subresources it embeds (transitively) and the resources it links to.
+     */
+    public Set<String> getReferences() {
+        Set<String> references = new HashSet<>();
+        collectReferences(doc, references);
+        return references;
+    }
+
+    public ClassDoc getClassDoc() {
+        return doc;
     }
 
     public String getProviderPackage() {
@@ -193,6 +234,103 @@ public class ResourceDocGenerator {
         return new String(new char[r]).replace("\0", c);
     }
 
+    /**
+     * Converts a camel case name to lower hyphen case (i.e. {@code getAmiName} to {@code get-ami-name}), the same way
+     * as Guava's {@code CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_HYPHEN, name)}: every ASCII upper case letter
+     * after the first character starts a new word.
+     */
+    static String toLowerHyphen(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 4);
+
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+
+            if (c >= 'A' && c <= 'Z') {
+                if (i > 0) {
+                    sb.append('-');
+                }
+
+                sb.append((char) (c + ('a' - 'A')));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    static boolean isBlank(String s) {
+        if (s != null) {
+            for (int i = 0; i < s.length(); i++) {
+                if (!Character.isWhitespace(s.charAt(i))) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Escapes the string for a Java string literal, like dari-util's {@code StringUtils.escapeJava}: quotes,
+     * backslashes, forward slashes, control characters and anything outside of printable ASCII, which is written as a
+     * unicode escape.
+     */
+    static String escapeJava(String s) {
+        if (s == null) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder(s.length() + 8);
+
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+
+                case '/':
+                    sb.append("\\/");
+                    break;
+
+                case '\b':
+                    sb.append("\\b");
+                    break;
+
+                case '\n':
+                    sb.append("\\n");
+                    break;
+
+                case '\t':
+                    sb.append("\\t");
+                    break;
+
+                case '\f':
+                    sb.append("\\f");
+                    break;
+
+                case '\r':
+                    sb.append("\\r");
+                    break;
+
+                default:
+                    if (c < 32 || c > 0x7f) {
+                        sb.append(String.format("\\u%04X", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+
+        return sb.toString();
+    }
+
     public static boolean isResource(ClassDoc classDoc) {
         boolean isResource = false;
 
@@ -235,39 +373,33 @@ public class ResourceDocGenerator {
         return String.format("%s::%s", namespace, name.replace(GyroDoclet.FINDER_SUFFIX, ""));
     }
 
-    private void generateHeader(StringBuilder sb) {
-        String resourceName = resourceName();
-        sb.append(resourceName);
-        sb.append("\n");
-        sb.append(repeat("=", resourceName.length()));
-        sb.append("\n\n");
-        sb.append(trim(doc.commentText()));
-        sb.append("\n\n");
-    }
+    private void collectReferences(ClassDoc classDoc, Set<String> references) {
+        if (classDoc == null || !references.add(classDoc.qualifiedName())) {
+            return;
+        }
 
-    private boolean writeAttributes(ClassDoc classDoc, StringBuilder sb, int indent, boolean includeOutput) {
-        return writeAttributes(
-            classDoc,
-            sb,
-            indent,
-            includeOutput ? OutputMode.INCLUDE_OUTPUT : OutputMode.EXCLUDE_OUTPUT,
-            true);
+        collectReferences(classDoc.superclass(), references);
+
+        for (MethodDoc methodDoc : classDoc.methods()) {
+            for (Tag tag : methodDoc.tags()) {
+                if (tag.name().equals("@subresource")) {
+                    collectReferences(root.classNamed(tag.text()), references);
+                } else if (tag.name().equals("@resource")) {
+                    references.add(tag.text());
+                }
+            }
+        }
     }
 
-    private boolean writeAttributes(
-        ClassDoc classDoc,
-        StringBuilder sb,
-        int indent,
-        OutputMode outputMode,
-        boolean tableFormat) {
-        boolean hadOutputs = false;
+    private List<AttributeDoc> readAttributes(ClassDoc classDoc) {
+        List<AttributeDoc> attributes = new ArrayList<>();
 
-        // Output superclass attributes.
+        // Read superclass attributes.
         if (classDoc.superclass() != null
             && !classDoc.superclass().qualifiedName().equals("gyro.core.resource.Resource")
             && !classDoc.superclass().qualifiedName().equals("gyro.core.resource.Diffable")
             && !classDoc.superclass().qualifiedName().equals("gyro.core.finder.Finder")) {
-            hadOutputs = writeAttributes(classDoc.superclass(), sb, indent, outputMode, tableFormat);
+            attributes.addAll(readAttributes(classDoc.superclass()));
         }
 
         // Read each method that contains a comment.
@@ -275,180 +407,69 @@ public class ResourceDocGenerator {
             String commentText = methodDoc.commentText();
 
             if (commentText != null && commentText.length() > 0) {
+                AttributeDoc attribute = new AttributeDoc();
 
-                commentText = addValidationAnnotationMessage(methodDoc, commentText);
-
-                String attributeName = methodDoc.name();
-                attributeName = CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_HYPHEN, attributeName)
-                    .replaceFirst("get-", "");
+                attribute.setComment(addValidationAnnotationMessage(methodDoc, commentText));
+                attribute.setName(ATTRIBUTE_NAMES.computeIfAbsent(
+                    methodDoc.name(),
+                    n -> toLowerHyphen(n).replaceFirst("get-", "")));
+                attribute.setOutput(isAnnotationPresent(methodDoc, Output.class));
+                attribute.setCollectionType(Optional.of(methodDoc.returnType())
+                    .filter(e -> e.asParameterizedType() != null)
+                    .map(Type::simpleTypeName)
+                    .map(String::toLowerCase)
+                    .orElse(null));
 
-                String attributeSubresourceClass = "";
-                boolean attributeIsOutput = false;
-                ResourceType attributeResourceType = null;
-                StringBuilder resourceLinkBuilder = new StringBuilder();
-
-                attributeIsOutput = isAnnotationPresent(methodDoc, Output.class);
+                Tag subresourceTag = null;
 
                 for (Tag tag : methodDoc.tags()) {
                     if (tag.name().equals("@subresource")) {
-                        attributeSubresourceClass = tag.text();
-                        attributeResourceType = ResourceType.SUBRESOURCE;
+                        subresourceTag = tag;
+                        attribute.setResourceType(AttributeDoc.ResourceType.SUBRESOURCE);
                     } else if (tag.name().equals("@output")) {
-                        attributeIsOutput = true;
+                        attribute.setOutput(true);
                     } else if (tag.name().equals("@resource")) {
-                        // TODO: cache
                         ClassDoc resourceDoc = root.classNamed(tag.text());
-                        String groupName = getDocGroupName(resourceDoc.containingPackage());
-                        String resourceType = getResourceType(resourceDoc);
+                        String resourceType = resourceDoc != null ? getResourceType(resourceDoc) : null;
 
-                        if (resourceType == null) {
-                            System.err.println("Not a resource type!: " + tag.text());
+                        if (resourceDoc == null && shard) {
+                            attribute.setLinkClass(tag.text());
+                            attribute.setResourceType(AttributeDoc.ResourceType.RESOURCE);
+                        } else if (resourceType == null) {
+                            reporter.printWarning(tag.position(), "Not a resource type!: " + tag.text());
                         } else {
-                            resourceLinkBuilder.append(":ref:`")
-                                .append(resourceName(resourceType))
-                                .append("<")
-                                .append(String.format(GyroDoclet.RESOURCE_LINK_PATTERN, groupName, resourceType))
-                                .append(">`");
-                            attributeResourceType = ResourceType.RESOURCE;
+                            String groupName = getDocGroupName(resourceDoc.containingPackage());
+
+                            attribute.setLinkGroup(groupName);
+                            attribute.setLinkType(resourceType);
+                            attribute.setResourceType(AttributeDoc.ResourceType.RESOURCE);
                         }
                     }
                 }
 
-                if ((outputMode == OutputMode.INCLUDE_OUTPUT)
-                    || (outputMode == OutputMode.EXCLUDE_OUTPUT && !attributeIsOutput)
-                    || (outputMode == OutputMode.OUTPUT_ONLY && attributeIsOutput)) {
-                    writeAttribute(
-                        methodDoc,
-                        sb,
-                        attributeName,
-                        attributeResourceType,
-                        resourceLinkBuilder,
-                        commentText,
-                        indent,
-                        tableFormat);
-
-                    if (attributeResourceType == ResourceType.SUBRESOURCE) {
-                        ClassDoc subresourceDoc = root.classNamed(attributeSubresourceClass);
-
-                        if (subresourceDoc != null) {
-                            writeAttributes(subresourceDoc, sb, indent + 8, outputMode, false);
-                        }
+                if (attribute.getResourceType() == AttributeDoc.ResourceType.SUBRESOURCE) {
+                    ClassDoc subresourceDoc = root.classNamed(subresourceTag.text());
+
+                    if (subresourceDoc != null) {
+                        attribute.setSubresourceGroup(getDocGroupName(subresourceDoc.containingPackage()));
+                        attribute.setSubresourceType(getSubresourceType(subresourceDoc));
+                        attribute.setAttributes(readAttributes(subresourceDoc));
+                    } else if (shard) {
+                        // Subresource attributes are only read from sources, so they can't be resolved by the merge.
+                        reporter.printWarning(subresourceTag.position(), "Subresource not in this shard!: " + subresourceTag.text());
+                    } else {
+                        reporter.printWarning(subresourceTag.position(), "Not a subresource type!: " + subresourceTag.text());
                     }
                 }
 
-                if (attributeIsOutput) {
-                    hadOutputs = true;
-                }
+                attributes.add(attribute);
             }
         }
 
-        return hadOutputs;
+        return attributes;
     }
 
-    private void writeAttribute(
-        MethodDoc methodDoc,
-        StringBuilder sb,
-        String attributeName,
-        ResourceType resourceType,
-        StringBuilder link,
-        String commentText,
-        int indent,
-        boolean tableFormat) {
-        String resourceTypeName = Optional.ofNullable(resourceType)
-            .map(ResourceType::toString)
-            .orElse(null);
-
-        String genericTypeName = Optional.of(methodDoc.returnType())
-            .filter(e -> e.asParameterizedType() != null)
-            .map(Type::simpleTypeName)
-            .map(String::toLowerCase)
-            .orElse(null);
-
-        if (tableFormat) {
-            sb.append(repeat(" ", indent + 4));
-            sb.append("* - ");
-            writeFieldName(sb, attributeName, genericTypeName, resourceTypeName);
-            sb.append(repeat(" ", indent + 6));
-            sb.append("- ");
-
-            writeLink(sb, link, resourceTypeName, indent + 8);
-        } else {
-            sb.append(repeat(" ", indent));
-
-            if (genericTypeName != null || resourceType != null) {
-                sb.append(".. rst-class:: label-container\n");
-                sb.append(repeat(" ", indent));
-            }
-            writeFieldName(sb, attributeName, genericTypeName, resourceTypeName);
-            sb.append(repeat(" ", indent + 4));
-
-            writeLink(sb, link, resourceTypeName, indent + 4);
-        }
-        sb.append(firstSentence(commentText));
-        String rest = comment(commentText, indent + (tableFormat ? 8 : 4));
-
-        if (rest != null && rest.length() > 0) {
-            sb.append(rest);
-        }
-        sb.append("\n\n");
-    }
-
-    private void writeFieldName(
-        StringBuilder sb,
-        String attributeName,
-        String genericTypeName,
-        String resourceTypeName) {
-        sb.append(String.format(":attribute:`%s`", attributeName));
-
-        if (genericTypeName != null) {
-            sb.append(String.format(" :collection-type:`%s`", genericTypeName));
-        }
-
-        if (resourceTypeName != null) {
-            sb.append(String.format(" :resource-type:`%s`", resourceTypeName));
-        }
-        sb.append("\n");
-    }
-
-    private void writeLink(StringBuilder sb, StringBuilder link, String resourceTypeName, int indent) {
-        if (link != null && link.length() > 0) {
-            sb.append(String.format(".. rst-class:: .%s-link", resourceTypeName));
-            sb.append("\n");
-            sb.append(repeat(" ", indent));
-            sb.append(link);
-            sb.append(" ");
-            sb.append(resourceTypeName);
-            sb.append("\n");
-            sb.append("\n");
-            sb.append(repeat(" ", indent));
-        }
-    }
-
-    private void generateOutputs(ClassDoc classDoc, StringBuilder sb, int indent) {
-        writeAttributes(classDoc, sb, indent, OutputMode.OUTPUT_ONLY, true);
-    }
-
-    private String firstSentence(String commentText) {
-        return commentText.split("\n")[0];
-    }
-
-    private String comment(String commentText, int indent) {
-        StringBuilder sb = new StringBuilder();
-
-        String[] parts = commentText.split("\n");
-        if (parts.length > 1) {
-            sb.append("\n");
-            for (int i = 1; i < parts.length; i++) {
-                sb.append("\n");
-                sb.append(repeat(" ", indent));
-                sb.append(trimLeadingSpaces(parts[i]));
-            }
-        }
-
-        return sb.toString();
-    }
-
-    private String getDocGroupName(PackageDoc packageDoc) {
+    static String getDocGroupName(PackageDoc packageDoc) {
         for (AnnotationDesc annotationDesc : packageDoc.annotations()) {
             if (annotationDesc.annotationType().name().equals("DocGroup")) {
                 return (String) annotationDesc.elementValues()[0].value().value();
@@ -457,7 +478,11 @@ public class ResourceDocGenerator {
         return null;
     }
 
-    private String getResourceType(ClassDoc doc) {
+    static String getSubresourceType(ClassDoc doc) {
+        return toLowerHyphen(doc.name().replace("Resource", ""));
+    }
+
+    static String getResourceType(ClassDoc doc) {
         for (AnnotationDesc annotationDesc : doc.annotations()) {
             if (annotationDesc.annotationType().name().equals("Type")) {
                 for (AnnotationDesc.ElementValuePair pair : annotationDesc.elementValues()) {
@@ -470,22 +495,6 @@ public class ResourceDocGenerator {
         return null;
     }
 
-    private enum OutputMode {
-        OUTPUT_ONLY,
-        INCLUDE_OUTPUT,
-        EXCLUDE_OUTPUT;
-    }
-
-    private enum ResourceType {
-        RESOURCE,
-        SUBRESOURCE;
-
-        @Override
-        public String toString() {
-            return name().toLowerCase();
-        }
-    }
-
     private String addValidationAnnotationMessage(MethodDoc methodDoc, String commentText) {
 
         String returnTypeName = methodDoc.returnType().typeName();
@@ -678,10 +687,10 @@ public class ResourceDocGenerator {
         if (isAnnotationPresent(methodDoc, Regex.class) && !noDocSet.contains("Regex")) {
             AnnotationDesc annotationDesc = getAnnotationDesc(methodDoc, Regex.class);
 
-            String regexValue = StringUtils.escapeJava(getAnnotationValue(annotationDesc, "value"));
+            String regexValue = escapeJava(getAnnotationValue(annotationDesc, "value"));
             String regexMessage = getAnnotationValue(annotationDesc, "message");
 
-            String validRegexMessage = !ObjectUtils.isBlank(regexMessage)
+            String validRegexMessage = !isBlank(regexMessage)
                 ? String.format("Must be %s.", regexMessage)
                 : "";
 
@@ -702,10 +711,10 @@ public class ResourceDocGenerator {
             List<String> regexFieldStrings = new ArrayList<>();
 
             annotationDescs.forEach(o -> {
-                String regexValue = StringUtils.escapeJava(getAnnotationValue(o, "value"));
+                String regexValue = escapeJava(getAnnotationValue(o, "value"));
                 String regexMessage = getAnnotationValue(o, "message");
 
-                String validRegexMessage = !ObjectUtils.isBlank(regexMessage)
+                String validRegexMessage = !isBlank(regexMessage)
                     ? String.format("Must be %s.", regexMessage)
                     : "";
 
@@ -724,7 +733,7 @@ public class ResourceDocGenerator {
 
         // See Ref Doc
         // Has to be before Required
-        if (!ObjectUtils.isBlank(seeRefDoc)) {
+        if (!isBlank(seeRefDoc)) {
             commentText = String.format("%s %s", commentText, seeRefDoc);
         }
 
@@ -741,7 +750,7 @@ public class ResourceDocGenerator {
         return commentText;
     }
 
-    private boolean isAnnotationPresent(MethodDoc methodDoc, Class<?> annotationClass) {
+    static boolean isAnnotationPresent(MethodDoc methodDoc, Class<?> annotationClass) {
         return Arrays.stream(methodDoc.annotations())
             .anyMatch(o -> o.annotationType().qualifiedName().equals(annotationClass.getName()));
     }
@@ -800,7 +809,7 @@ public class ResourceDocGenerator {
         String[] split = num.split("\\.");
         if (split.length == 2) {
             String decimal = split[1].replaceAll("0", "");
-            if (ObjectUtils.isBlank(decimal)) {
+            if (isBlank(decimal)) {
                 result = split[0];
             }
         }
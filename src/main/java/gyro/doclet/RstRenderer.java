@@ -0,0 +1,757 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package gyro.doclet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.sun.javadoc.DocErrorReporter;
+
+/**
+ * Renders the reStructuredText reference documentation from a {@link ProviderDoc}.
+ */
+public class RstRenderer {
+
+    private final DocErrorReporter reporter;
+    private int splitAttributes;
+    private int splitSize;
+    private TableFormat tableFormat = TableFormat.LIST_TABLE;
+    private ReferenceGraph references;
+    private boolean indexes = true;
+
+    public RstRenderer() {
+        this(new ConsoleReporter());
+    }
+
+    public RstRenderer(DocErrorReporter reporter) {
+        this.reporter = reporter;
+    }
+
+    /**
+     * Subresources with more than this many attributes, including nested ones, are moved to their own page. Zero
+     * disables the limit.
+     */
+    public void setSplitAttributes(int splitAttributes) {
+        this.splitAttributes = splitAttributes;
+    }
+
+    /**
+     * Subresources whose rendered attributes are longer than this many characters are moved to their own page. Zero
+     * disables the limit.
+     */
+    public void setSplitSize(int splitSize) {
+        this.splitSize = splitSize;
+    }
+
+    /**
+     * With {@link TableFormat#CSV}, the attribute and output tables are written to CSV data files under
+     * {@code _data} and included with {@code csv-table} directives, which docutils parses much faster than nested
+     * list tables.
+     */
+    public void setTableFormat(TableFormat tableFormat) {
+        this.tableFormat = tableFormat;
+    }
+
+    /**
+     * If set, resource pages end with a "Referenced by" section listing the resources that link to or embed them.
+     */
+    public void setReferences(ReferenceGraph references) {
+        this.references = references;
+    }
+
+    /**
+     * Whether {@link #write(ProviderDoc, DocOutput, Set)} also writes the group and provider indexes. Shards leave
+     * them to {@link GyroDocMerge}, which writes them with {@link #writeIndexes(ProviderDoc, DocOutput)}.
+     */
+    public void setIndexes(boolean indexes) {
+        this.indexes = indexes;
+    }
+
+    public String render(ResourceDoc resource) {
+        return render(resource, null);
+    }
+
+    /**
+     * @param pages If not {@code null}, subresources over the split thresholds and CSV data files are rendered into
+     *              this map, keyed by file name relative to the group directory.
+     */
+    public String render(ResourceDoc resource, Map<String, String> pages) {
+        if (resource.isSubresource()) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        generateHeader(resource, sb);
+
+        if (resource.isDocumented()) {
+            sb.append("Attributes\n");
+            sb.append(ResourceDocGenerator.repeat("-", 10));
+            sb.append("\n\n");
+
+            sb.append(".. role:: attribute\n\n");
+            sb.append(".. role:: resource-type\n\n");
+            sb.append(".. role:: collection-type\n\n");
+
+            Page page = new Page(resource, pages);
+
+            if (writeTable(page, sb, OutputMode.EXCLUDE_OUTPUT, "attributes")) {
+                sb.append("Outputs\n");
+                sb.append(ResourceDocGenerator.repeat("-", 7));
+                sb.append("\n\n");
+
+                writeTable(page, sb, OutputMode.OUTPUT_ONLY, "outputs");
+            }
+
+            writeSplitPages(page);
+        }
+
+        if (references != null && !resource.isFinder()) {
+            writeReferencedBy(resource, sb);
+        }
+
+        return sb.toString();
+    }
+
+    private void writeReferencedBy(ResourceDoc resource, StringBuilder sb) {
+        List<ReferenceGraph.Reference> referencedBy = references.getReferencedBy(resource);
+
+        if (referencedBy.isEmpty()) {
+            return;
+        }
+
+        sb.append("Referenced by\n");
+        sb.append(ResourceDocGenerator.repeat("-", 13));
+        sb.append("\n\n");
+
+        ReferenceGraph.Node previous = null;
+
+        for (ReferenceGraph.Reference reference : referencedBy) {
+            ReferenceGraph.Node source = reference.getSource();
+
+            if (source != previous) {
+                if (previous != null) {
+                    sb.append(")\n");
+                }
+
+                // Resources without a group don't have a page to link to.
+                if (source.getGroup() == null) {
+                    sb.append("* ").append(source.getTitle()).append(" (");
+                } else {
+                    String document = source.getGroup().equals(resource.getGroupName())
+                        ? source.getName()
+                        : "../" + groupDir(source.getGroup()) + "/" + source.getName();
+
+                    sb.append("* :doc:`").append(source.getTitle()).append(" <").append(document).append(">` (");
+                }
+                previous = source;
+            } else {
+                sb.append(", ");
+            }
+
+            sb.append("``").append(reference.getPath()).append("``");
+        }
+
+        sb.append(")\n\n");
+    }
+
+    public boolean write(ProviderDoc provider, String outputDirectory) {
+        return write(provider, new FileOutput(new File(outputDirectory)), null);
+    }
+
+    public boolean write(ProviderDoc provider, String outputDirectory, Set<ResourceDoc> selected) {
+        return write(provider, new FileOutput(new File(outputDirectory)), selected);
+    }
+
+    /**
+     * @param selected If not {@code null}, only these pages are written, along with the index of their groups. The
+     *                 provider index is only rewritten if a new group directory had to be created.
+     * @return {@code false} if any of the files couldn't be written.
+     */
+    public boolean write(ProviderDoc provider, DocOutput output, Set<ResourceDoc> selected) {
+        // Generate rst file for each resource.
+        // Generate index for each group (i.e. java package) of resources.
+        // Generate index for all groups.
+
+        // group -> "resource -> doc"
+        Map<String, Map<String, ResourceDoc>> docs = new HashMap<>();
+
+        for (ResourceDoc resource : provider.getResources()) {
+            Map<String, ResourceDoc> groupDocs = docs.computeIfAbsent(resource.getGroupName(), m -> new HashMap<>());
+
+            groupDocs.put(resource.getName(), resource);
+        }
+
+        /*
+        AWS Provider
+        ------------
+
+        .. toctree::
+            :maxdepth: 1
+
+           autoscaling-groups/index
+           ec2/index
+         */
+
+        FinderPairs pairs = FinderPairs.build(provider);
+        List<String> groupDirs = new ArrayList<>();
+        boolean newGroupDir = false;
+        boolean written = true;
+
+        for (String group : docs.keySet()) {
+            if (group != null) {
+                String groupDir = groupDir(group);
+                Map<String, ResourceDoc> resources = docs.get(group);
+
+                groupDirs.add(groupDir);
+
+                if (selected != null && resources.values().stream().noneMatch(selected::contains)) {
+                    continue;
+                }
+
+                newGroupDir |= !output.hasDirectory(groupDir);
+
+                // Output individual resource files.
+                for (ResourceDoc resource : resources.values()) {
+                    // Finders are written along with their resource.
+                    if (resource.isFinder() || (selected != null && !selected.contains(resource))) {
+                        continue;
+                    }
+
+                    Map<String, String> pages = new HashMap<>();
+                    String rst = render(resource, pages);
+                    FinderPairs.Pair pair = pairs.get(group, resource.getName());
+
+                    if (pair != null) {
+                        String finderRst = render(pair.getFinder(), pages);
+
+                        //Resource
+                        written &= writeFile(output, groupDir + "/" + resource.getName() + ".rst", pair.getResourceHeader() + rst);
+
+                        //Finder
+                        written &= writeFile(output, groupDir + "/" + pair.getFinder().getName() + ".rst", pair.getFinderHeader() + finderRst);
+
+                    } else { //No finder
+                        written &= writeFile(output, groupDir + "/" + resource.getName() + ".rst", rst);
+                    }
+
+                    for (Map.Entry<String, String> page : pages.entrySet()) {
+                        written &= writeFile(output, groupDir + "/" + page.getKey(), page.getValue());
+                    }
+                }
+
+                // Output group index
+                if (indexes) {
+                    written &= writeFile(output, groupDir + "/index.rst", generateGroupIndex(group, resources.keySet()));
+                }
+            }
+        }
+
+        // Output provider index
+        if (indexes && (selected == null || newGroupDir)) {
+            written &= writeFile(output, "index.rst", generateProviderIndex(provider, groupDirs));
+        }
+
+        return written;
+    }
+
+    /**
+     * Writes the index of every group and the provider index, without any of the resource pages.
+     */
+    public boolean writeIndexes(ProviderDoc provider, DocOutput output) {
+        Map<String, Set<String>> groups = new HashMap<>();
+
+        for (ResourceDoc resource : provider.getResources()) {
+            if (resource.getGroupName() != null) {
+                groups.computeIfAbsent(resource.getGroupName(), g -> new HashSet<>()).add(resource.getName());
+            }
+        }
+
+        List<String> groupDirs = new ArrayList<>();
+        boolean written = true;
+
+        for (Map.Entry<String, Set<String>> group : groups.entrySet()) {
+            String groupDir = groupDir(group.getKey());
+
+            groupDirs.add(groupDir);
+            written &= writeFile(output, groupDir + "/index.rst", generateGroupIndex(group.getKey(), group.getValue()));
+        }
+
+        written &= writeFile(output, "index.rst", generateProviderIndex(provider, groupDirs));
+
+        return written;
+    }
+
+    static String groupDir(String group) {
+        return group.toLowerCase().replaceAll(" ", "-");
+    }
+
+    private boolean writeFile(DocOutput output, String path, String content) {
+        try {
+            output.write(path, content);
+            return true;
+        } catch (IOException ioe) {
+            reporter.printError(String.format("Unable to write %s: %s", path, ioe.getMessage()));
+            return false;
+        }
+    }
+
+    private String generateProviderIndex(ProviderDoc provider, List<String> groupDirs) {
+        StringBuilder providerIndex = new StringBuilder();
+
+        providerIndex.append(trimLeadingSpace(provider.getComment()).replace("{@literal @}", "@"));
+        providerIndex.append("\n\nResources\n");
+        providerIndex.append("+++++++++\n");
+        providerIndex.append("\n\n");
+        providerIndex.append(".. toctree::\n");
+        providerIndex.append("    :maxdepth: 1\n\n");
+
+        Collections.sort(groupDirs);
+
+        for (String groupDir : groupDirs) {
+            providerIndex.append("    ");
+            providerIndex.append(groupDir);
+            providerIndex.append("/index\n");
+        }
+
+        return providerIndex.toString();
+    }
+
+    private String generateGroupIndex(String groupName, Set<String> resources) {
+        StringBuilder sb = new StringBuilder();
+
+        /*
+        Autoscaling Groups
+        ==================
+
+        .. toctree::
+
+            auto-scaling-group
+            launch-configuration
+        */
+
+        sb.append(groupName).append("\n");
+        sb.append(ResourceDocGenerator.repeat("=", groupName.length()));
+        sb.append("\n\n");
+        sb.append(".. toctree::");
+        sb.append("\n");
+        sb.append("    :maxdepth: 1");
+        sb.append("\n\n");
+
+        List<String> keys = new ArrayList<>(resources);
+        Collections.sort(keys);
+
+        for (String resource : keys) {
+            if (resource != null && !resource.endsWith(GyroDoclet.FINDER_SUFFIX)) {
+                sb.append("    ").append(resource);
+                sb.append("\n");
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private String trimLeadingSpace(String comment) {
+        StringBuilder sb = new StringBuilder();
+
+        String[] parts = comment.split("\n");
+        if (parts.length > 1) {
+            for (int i = 0; i < parts.length; i++) {
+                sb.append(parts[i].replaceFirst(" ", ""));
+                sb.append("\n");
+            }
+        }
+
+        return sb.toString();
+
+    }
+
+    private String resourceName(ResourceDoc resource, String name) {
+        return String.format("%s::%s", resource.getNamespace(), name.replace(GyroDoclet.FINDER_SUFFIX, ""));
+    }
+
+    private void generateHeader(ResourceDoc resource, StringBuilder sb) {
+        String resourceName = resourceName(resource, resource.getName());
+        sb.append(resourceName);
+        sb.append("\n");
+        sb.append(ResourceDocGenerator.repeat("=", resourceName.length()));
+        sb.append("\n\n");
+        sb.append(ResourceDocGenerator.trim(resource.getComment()));
+        sb.append("\n\n");
+    }
+
+    private boolean writeTable(Page page, StringBuilder sb, OutputMode outputMode, String dataName) {
+        if (tableFormat == TableFormat.CSV && page.pages != null) {
+            String dataFile = "_data/" + page.name + "-" + dataName + ".csv";
+            StringBuilder csv = new StringBuilder();
+
+            csv.append("\"Attribute\",\"Description\"\n");
+            boolean hadOutputs = writeCsvRows(page, page.resource.getAttributes(), csv, outputMode);
+            page.pages.put(dataFile, csv.toString());
+
+            sb.append(".. csv-table::\n");
+            sb.append("    :file: ").append(dataFile).append("\n");
+            sb.append("    :encoding: utf-8\n");
+            sb.append("    :widths: 30 70\n");
+            sb.append("    :header-rows: 1\n\n");
+
+            return hadOutputs;
+        }
+
+        sb.append(".. list-table::\n");
+        sb.append("    :widths: 30 70\n");
+        sb.append("    :header-rows: 1\n\n");
+        sb.append("    * - Attribute\n");
+        sb.append("      - Description\n\n");
+
+        return writeAttributes(page, page.resource.getAttributes(), sb, 0, outputMode, true);
+    }
+
+    // Each row has the same content as the list table cells, but indented relative to the cell.
+    private boolean writeCsvRows(Page page, List<AttributeDoc> attributes, StringBuilder csv, OutputMode outputMode) {
+        boolean hadOutputs = false;
+
+        for (AttributeDoc attribute : attributes) {
+            if (isIncluded(attribute, outputMode)) {
+                String resourceTypeName = attribute.getResourceType() != null
+                    ? attribute.getResourceType().toString()
+                    : null;
+
+                StringBuilder name = new StringBuilder();
+                writeFieldName(name, attribute.getName(), attribute.getCollectionType(), resourceTypeName);
+
+                StringBuilder description = new StringBuilder();
+                writeLink(description, link(page.resource, attribute), resourceTypeName, 0);
+                description.append(firstSentence(attribute.getComment()));
+                description.append(comment(attribute.getComment(), 0));
+                description.append("\n\n");
+
+                if (attribute.getResourceType() == AttributeDoc.ResourceType.SUBRESOURCE) {
+                    writeSubresource(page, attribute, description, 0, outputMode);
+                }
+
+                csv.append(csvField(name));
+                csv.append(",");
+                csv.append(csvField(description));
+                csv.append("\n");
+            }
+
+            if (attribute.isOutput()) {
+                hadOutputs = true;
+            }
+        }
+
+        return hadOutputs;
+    }
+
+    private String csvField(CharSequence value) {
+        return "\"" + value.toString().trim().replace("\"", "\"\"") + "\"";
+    }
+
+    private boolean isIncluded(AttributeDoc attribute, OutputMode outputMode) {
+        return (outputMode == OutputMode.INCLUDE_OUTPUT)
+            || (outputMode == OutputMode.EXCLUDE_OUTPUT && !attribute.isOutput())
+            || (outputMode == OutputMode.OUTPUT_ONLY && attribute.isOutput());
+    }
+
+    private boolean writeAttributes(
+        Page page,
+        List<AttributeDoc> attributes,
+        StringBuilder sb,
+        int indent,
+        OutputMode outputMode,
+        boolean tableFormat) {
+        boolean hadOutputs = false;
+
+        for (AttributeDoc attribute : attributes) {
+            if (isIncluded(attribute, outputMode)) {
+                writeAttribute(page.resource, attribute, sb, indent, tableFormat);
+
+                if (attribute.getResourceType() == AttributeDoc.ResourceType.SUBRESOURCE) {
+                    writeSubresource(page, attribute, sb, indent + 8, outputMode);
+                }
+            }
+
+            if (attribute.isOutput()) {
+                hadOutputs = true;
+            }
+        }
+
+        return hadOutputs;
+    }
+
+    private void writeSubresource(Page page, AttributeDoc attribute, StringBuilder sb, int indent, OutputMode outputMode) {
+        Page subpage = page.subpage(attribute);
+
+        if (page.pages == null) {
+            writeAttributes(subpage, attribute.getAttributes(), sb, indent, outputMode, false);
+            return;
+        }
+
+        // Rendered only once, since nested subresources would otherwise be rendered again at every level. A split page
+        // reuses the inline content, without its indentation.
+        StringBuilder inline = new StringBuilder();
+        writeAttributes(subpage, attribute.getAttributes(), inline, indent, outputMode, false);
+
+        if ((splitAttributes <= 0 || countAttributes(attribute.getAttributes()) <= splitAttributes)
+            && (splitSize <= 0 || inline.length() <= splitSize)) {
+            sb.append(inline);
+            return;
+        }
+
+        subpage.content = unindent(inline, indent);
+        subpage.splitPages.add(subpage);
+
+        sb.append(ResourceDocGenerator.repeat(" ", indent));
+        sb.append(":doc:`").append(attribute.getName()).append(" attributes <").append(subpage.name).append(">`");
+        sb.append("\n\n");
+    }
+
+    // Written once all the subresources of the resource page are either inline or split, so that the page links back to
+    // the closest page that it's embedded in.
+    private void writeSplitPages(Page page) {
+        for (Page subpage : page.splitPages) {
+            Page parent = subpage.parent;
+
+            while (parent.parent != null && parent.content == null) {
+                parent = parent.parent;
+            }
+
+            /*
+            :orphan:
+
+            aws::instance block-device
+            ==========================
+
+            :doc:`Back to aws::instance <instance>`
+            */
+
+            StringBuilder subpageRst = new StringBuilder();
+            subpageRst.append(":orphan:\n\n");
+            subpageRst.append(subpage.title).append("\n");
+            subpageRst.append(ResourceDocGenerator.repeat("=", subpage.title.length()));
+            subpageRst.append("\n\n");
+            subpageRst.append(":doc:`Back to ").append(parent.title).append(" <").append(parent.name).append(">`");
+            subpageRst.append("\n\n");
+            subpageRst.append(".. role:: attribute\n\n");
+            subpageRst.append(".. role:: resource-type\n\n");
+            subpageRst.append(".. role:: collection-type\n\n");
+            subpageRst.append(subpage.content);
+
+            page.pages.put(subpage.name + ".rst", subpageRst.toString());
+        }
+    }
+
+    // Every line written at an indentation is either empty or starts with at least that many spaces.
+    private String unindent(CharSequence rst, int indent) {
+        StringBuilder sb = new StringBuilder(rst.length());
+
+        for (String line : rst.toString().split("\n", -1)) {
+            int start = 0;
+
+            while (start < indent && start < line.length() && line.charAt(start) == ' ') {
+                start++;
+            }
+
+            sb.append(line, start, line.length()).append("\n");
+        }
+
+        sb.setLength(sb.length() - 1);
+
+        return sb.toString();
+    }
+
+    private int countAttributes(List<AttributeDoc> attributes) {
+        int count = attributes.size();
+
+        for (AttributeDoc attribute : attributes) {
+            count += countAttributes(attribute.getAttributes());
+        }
+
+        return count;
+    }
+
+    private void writeAttribute(
+        ResourceDoc resource,
+        AttributeDoc attribute,
+        StringBuilder sb,
+        int indent,
+        boolean tableFormat) {
+        String resourceTypeName = attribute.getResourceType() != null
+            ? attribute.getResourceType().toString()
+            : null;
+
+        String genericTypeName = attribute.getCollectionType();
+        String link = link(resource, attribute);
+
+        if (tableFormat) {
+            sb.append(ResourceDocGenerator.repeat(" ", indent + 4));
+            sb.append("* - ");
+            writeFieldName(sb, attribute.getName(), genericTypeName, resourceTypeName);
+            sb.append(ResourceDocGenerator.repeat(" ", indent + 6));
+            sb.append("- ");
+
+            writeLink(sb, link, resourceTypeName, indent + 8);
+        } else {
+            sb.append(ResourceDocGenerator.repeat(" ", indent));
+
+            if (genericTypeName != null || resourceTypeName != null) {
+                sb.append(".. rst-class:: label-container\n");
+                sb.append(ResourceDocGenerator.repeat(" ", indent));
+            }
+            writeFieldName(sb, attribute.getName(), genericTypeName, resourceTypeName);
+            sb.append(ResourceDocGenerator.repeat(" ", indent + 4));
+
+            writeLink(sb, link, resourceTypeName, indent + 4);
+        }
+        sb.append(firstSentence(attribute.getComment()));
+        String rest = comment(attribute.getComment(), indent + (tableFormat ? 8 : 4));
+
+        if (rest != null && rest.length() > 0) {
+            sb.append(rest);
+        }
+        sb.append("\n\n");
+    }
+
+    private String link(ResourceDoc resource, AttributeDoc attribute) {
+        if (attribute.getLinkType() == null) {
+            return null;
+        }
+
+        return ":ref:`"
+            + resourceName(resource, attribute.getLinkType())
+            + "<"
+            + String.format(GyroDoclet.RESOURCE_LINK_PATTERN, attribute.getLinkGroup(), attribute.getLinkType())
+            + ">`";
+    }
+
+    private void writeFieldName(
+        StringBuilder sb,
+        String attributeName,
+        String genericTypeName,
+        String resourceTypeName) {
+        sb.append(String.format(":attribute:`%s`", attributeName));
+
+        if (genericTypeName != null) {
+            sb.append(String.format(" :collection-type:`%s`", genericTypeName));
+        }
+
+        if (resourceTypeName != null) {
+            sb.append(String.format(" :resource-type:`%s`", resourceTypeName));
+        }
+        sb.append("\n");
+    }
+
+    private void writeLink(StringBuilder sb, String link, String resourceTypeName, int indent) {
+        if (link != null && link.length() > 0) {
+            sb.append(String.format(".. rst-class:: .%s-link", resourceTypeName));
+            sb.append("\n");
+            sb.append(ResourceDocGenerator.repeat(" ", indent));
+            sb.append(link);
+            sb.append(" ");
+            sb.append(resourceTypeName);
+            sb.append("\n");
+            sb.append("\n");
+            sb.append(ResourceDocGenerator.repeat(" ", indent));
+        }
+    }
+
+    private String firstSentence(String commentText) {
+        return commentText.split("\n")[0];
+    }
+
+    private String comment(String commentText, int indent) {
+        StringBuilder sb = new StringBuilder();
+
+        String[] parts = commentText.split("\n");
+        if (parts.length > 1) {
+            sb.append("\n");
+            for (int i = 1; i < parts.length; i++) {
+                sb.append("\n");
+                sb.append(ResourceDocGenerator.repeat(" ", indent));
+                sb.append(ResourceDocGenerator.trimLeadingSpaces(parts[i]));
+            }
+        }
+
+        return sb.toString();
+    }
+
+    // Page that the attributes are written to, which is either the resource page or a split subresource page. Split
+    // pages are named after the resource and the attribute path, i.e. instance.block-device.ebs, since neither resource
+    // types nor attribute names have dots, so they can't take the name of another page in the group.
+    private static class Page {
+
+        private final ResourceDoc resource;
+        private final Map<String, String> pages;
+        private final String resourceTitle;
+        private final Page parent;
+        private final String path;
+        private final String name;
+        private final String title;
+        private final List<Page> splitPages;
+
+        // Attributes of a split page, without the header.
+        private String content;
+
+        Page(ResourceDoc resource, Map<String, String> pages) {
+            this.resource = resource;
+            this.pages = pages;
+            this.resourceTitle = String.format(
+                "%s::%s",
+                resource.getNamespace(),
+                resource.getName().replace(GyroDoclet.FINDER_SUFFIX, ""));
+            this.parent = null;
+            this.path = null;
+            this.name = resource.getName();
+            this.title = resourceTitle;
+            this.splitPages = new ArrayList<>();
+        }
+
+        private Page(Page parent, String path) {
+            this.resource = parent.resource;
+            this.pages = parent.pages;
+            this.resourceTitle = parent.resourceTitle;
+            this.parent = parent;
+            this.path = path;
+            this.name = resource.getName() + "." + path;
+            this.title = resourceTitle + " " + path;
+            this.splitPages = parent.splitPages;
+        }
+
+        Page subpage(AttributeDoc attribute) {
+            return new Page(this, path != null ? path + "." + attribute.getName() : attribute.getName());
+        }
+    }
+
+    public enum TableFormat {
+        LIST_TABLE,
+        CSV
+    }
+
+    private enum OutputMode {
+        OUTPUT_ONLY,
+        INCLUDE_OUTPUT,
+        EXCLUDE_OUTPUT;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019, Perfect Sense, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package gyro.doclet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.base.CaseFormat;
+import com.psddev.dari.util.StringUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResourceDocGeneratorTest {
+
+    @Test
+    public void toLowerHyphenConsecutiveCapitals() {
+        assertSameAsGuava("getAMIName");
+        assertSameAsGuava("HTTPServer");
+        assertSameAsGuava("getIPv6CidrBlock");
+        assertSameAsGuava("getABC");
+    }
+
+    @Test
+    public void toLowerHyphenLeadingUpperCase() {
+        assertSameAsGuava("Instance");
+        assertSameAsGuava("InstanceResource");
+        assertSameAsGuava("A");
+    }
+
+    @Test
+    public void toLowerHyphenNonAscii() {
+        assertSameAsGuava("get\u00DCberName");
+        assertSameAsGuava("\u00C4pfelUndBirnen");
+        assertSameAsGuava("getName\u00C9t\u00E9");
+        assertSameAsGuava("get\u03A3igma");
+    }
+
+    @Test
+    public void toLowerHyphenOther() {
+        assertSameAsGuava("");
+        assertSameAsGuava("get");
+        assertSameAsGuava("getEbs2Volume");
+        assertSameAsGuava("get_Snake_Case");
+        assertSameAsGuava("get-Already-Hyphen");
+    }
+
+    @Test
+    public void toLowerHyphenGenerated() {
+        for (String name : generate("abcxyzABCXYZ09_-.\u00E4\u00F6\u00FC\u00C4\u00D6\u00DC\u00DF\u00E9\u00C9\u03A3\u03C3")) {
+            assertSameAsGuava(name);
+        }
+    }
+
+    @Test
+    public void escapeJavaRegexes() {
+        assertSameAsDari("^arn:aws:iam::\\d+:role/.+$");
+        assertSameAsDari("[a-z0-9]([-a-z0-9]*[a-z0-9])?");
+        assertSameAsDari("^https?://.*");
+        assertSameAsDari("\"quoted\" and 'single'");
+    }
+
+    @Test
+    public void escapeJavaControlCharacters() {
+        assertSameAsDari("\b\t\n\f\r");
+        assertSameAsDari("\u0000\u0001\u001F\u007F");
+    }
+
+    @Test
+    public void escapeJavaNonAscii() {
+        assertSameAsDari("caf\u00E9");
+        assertSameAsDari("\u03A3\u4E2D\uFFFF");
+        assertSameAsDari("\uD83D\uDE00");
+    }
+
+    @Test
+    public void escapeJavaOther() {
+        assertSameAsDari(null);
+        assertSameAsDari("");
+        assertSameAsDari("plain");
+    }
+
+    @Test
+    public void escapeJavaGenerated() {
+        for (String string : generate("az09 /\\\"'.*+?[](){}^$|\t\n\r\u0000\u001F\u007F\u0080\u00E9\u03A3\u4E2D")) {
+            assertSameAsDari(string);
+        }
+    }
+
+    private void assertSameAsGuava(String name) {
+        assertEquals(
+            name,
+            CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_HYPHEN, name),
+            ResourceDocGenerator.toLowerHyphen(name));
+    }
+
+    private void assertSameAsDari(String string) {
+        assertEquals(
+            string,
+            StringUtils.escapeJava(string),
+            ResourceDocGenerator.escapeJava(string));
+    }
+
+    // Strings of up to 11 characters out of the alphabet, the same ones on every run.
+    private static List<String> generate(String alphabet) {
+        List<String> strings = new ArrayList<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder string = new StringBuilder();
+
+            for (int length = random.nextInt(12); length > 0; length--) {
+                string.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            strings.add(string.toString());
+        }
+
+        return strings;
+    }
+}